@@ -0,0 +1,114 @@
+package com.javalinq.benchmarks;
+
+import com.javalinq.implementations.QMap;
+import com.javalinq.tools.Aggregators;
+import com.javalinq.tools.KeyValuePair;
+import com.javalinq.tools.Partition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Partition, groupBy and QMap add/get/iterate against HashMap and Collectors.groupingBy.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Maps {
+    public QMap<Integer, Integer> map;
+    public Map<Integer, Integer> hashMap;
+
+    @Setup
+    public void setup(Dataset data) {
+      map = new QMap<>();
+      hashMap = new HashMap<>();
+      for (Integer item : data.items) {
+        map.add(item, item);
+        hashMap.putIfAbsent(item, item);
+      }
+    }
+  }
+
+  @Benchmark
+  public int partition(Dataset data) {
+    Partition<Integer, Integer> partition = data.items.parition(item -> item % 64);
+    return partition.map.size();
+  }
+
+  @Benchmark
+  public int partitionStream(Dataset data) {
+    Map<Integer, List<Integer>> groups = data.list.stream().collect(Collectors.groupingBy(item -> item % 64));
+    return groups.size();
+  }
+
+  @Benchmark
+  public int groupByCount(Dataset data) {
+    return data.items.groupBy(item -> item % 64, Aggregators.count()).size();
+  }
+
+  @Benchmark
+  public int groupByCountStream(Dataset data) {
+    Map<Integer, Long> groups = data.list.stream().collect(Collectors.groupingBy(item -> item % 64, Collectors.counting()));
+    return groups.size();
+  }
+
+  @Benchmark
+  public QMap<Integer, Integer> mapAdd(Dataset data) {
+    QMap<Integer, Integer> map = new QMap<>();
+    for (Integer item : data.items) map.add(item, item);
+    return map;
+  }
+
+  @Benchmark
+  public Map<Integer, Integer> mapAddHashMap(Dataset data) {
+    Map<Integer, Integer> map = new HashMap<>();
+    for (Integer item : data.list) map.putIfAbsent(item, item);
+    return map;
+  }
+
+  @Benchmark
+  public long mapGet(Dataset data, Maps maps) {
+    long total = 0;
+    for (Integer item : data.items) total += maps.map.get(item);
+    return total;
+  }
+
+  @Benchmark
+  public long mapGetHashMap(Dataset data, Maps maps) {
+    long total = 0;
+    for (Integer item : data.list) total += maps.hashMap.get(item);
+    return total;
+  }
+
+  @Benchmark
+  public long mapIterate(Maps maps) {
+    long total = 0;
+    for (KeyValuePair<Integer, Integer> pair : maps.map) total += pair.value();
+    return total;
+  }
+
+  @Benchmark
+  public long mapIterateHashMap(Maps maps) {
+    long total = 0;
+    for (Map.Entry<Integer, Integer> entry : maps.hashMap.entrySet()) total += entry.getValue();
+    return total;
+  }
+}
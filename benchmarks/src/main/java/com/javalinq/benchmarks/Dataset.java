@@ -0,0 +1,47 @@
+package com.javalinq.benchmarks;
+
+import com.javalinq.implementations.QList;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared input for the benchmarks. Values are drawn from [0, size / 4) so
+ * distinct, partition and the set operations see a realistic number of duplicates.
+ */
+@State(Scope.Benchmark)
+public class Dataset {
+  @Param({ "1000", "100000", "1000000" })
+  public int size;
+
+  public QList<Integer> items;
+  public QList<Integer> otherItems;
+  public List<Integer> list;
+  public List<Integer> otherList;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    int range = Math.max(1, size / 4);
+
+    items = new QList<>();
+    otherItems = new QList<>();
+    list = new ArrayList<>(size);
+    otherList = new ArrayList<>(size);
+
+    for (int index = 0; index < size; index++) {
+      int item = random.nextInt(range);
+      int otherItem = random.nextInt(range) + range / 2;
+
+      items.add(item);
+      otherItems.add(otherItem);
+      list.add(item);
+      otherList.add(otherItem);
+    }
+  }
+}
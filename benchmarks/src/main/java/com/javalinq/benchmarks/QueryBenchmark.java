@@ -0,0 +1,107 @@
+package com.javalinq.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * where/map chains, distinct and sort against their java.util.stream equivalents.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+  @Benchmark
+  public long whereMapCount(Dataset data) {
+    return data.items
+      .where(item -> item % 2 == 0)
+      .map(item -> item * 3)
+      .where(item -> item % 5 != 0)
+      .count();
+  }
+
+  // The same chain pulled through its iterators, for comparison with the pushed count() above.
+  @Benchmark
+  public long whereMapCountPull(Dataset data) {
+    long count = 0;
+    for (Integer item : data.items
+      .where(item -> item % 2 == 0)
+      .map(item -> item * 3)
+      .where(item -> item % 5 != 0)) {
+      count++;
+    }
+
+    return count;
+  }
+
+  @Benchmark
+  public long whereMapCountStream(Dataset data) {
+    return data.list.stream()
+      .filter(item -> item % 2 == 0)
+      .map(item -> item * 3)
+      .filter(item -> item % 5 != 0)
+      .count();
+  }
+
+  @Benchmark
+  public Object whereMapToList(Dataset data) {
+    return data.items
+      .where(item -> item % 2 == 0)
+      .map(item -> item * 3)
+      .toList();
+  }
+
+  @Benchmark
+  public List<Integer> whereMapToListStream(Dataset data) {
+    return data.list.stream()
+      .filter(item -> item % 2 == 0)
+      .map(item -> item * 3)
+      .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public long distinct(Dataset data) {
+    return data.items.distinct().count();
+  }
+
+  @Benchmark
+  public long distinctStream(Dataset data) {
+    return data.list.stream().distinct().count();
+  }
+
+  @Benchmark
+  public Integer sort(Dataset data) {
+    return data.items.sort(item -> item).last();
+  }
+
+  @Benchmark
+  public Integer sortStream(Dataset data) {
+    List<Integer> sorted = data.list.stream().sorted().collect(Collectors.toList());
+    return sorted.get(sorted.size() - 1);
+  }
+
+  @Benchmark
+  public Object top(Dataset data) {
+    return data.items.top(100, item -> item).last();
+  }
+
+  @Benchmark
+  public Integer topStream(Dataset data) {
+    List<Integer> top = data.list.stream()
+      .sorted(Comparator.reverseOrder())
+      .limit(100)
+      .collect(Collectors.toList());
+    return top.get(top.size() - 1);
+  }
+}
@@ -0,0 +1,68 @@
+package com.javalinq.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * concat, unionDistinct, intersect and except against their java.util.stream equivalents.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetOperationBenchmark {
+  // Both sides are sized, so count() can be answered without reading anything: sum the
+  // items instead so each side has to visit them.
+  @Benchmark
+  public long concat(Dataset data) {
+    return data.items.concat(data.otherItems).sumLong(item -> item);
+  }
+
+  @Benchmark
+  public long concatStream(Dataset data) {
+    return Stream.concat(data.list.stream(), data.otherList.stream()).mapToLong(item -> item).sum();
+  }
+
+  @Benchmark
+  public long unionDistinct(Dataset data) {
+    return data.items.unionDistinct(data.otherItems).count();
+  }
+
+  @Benchmark
+  public long unionDistinctStream(Dataset data) {
+    return Stream.concat(data.list.stream(), data.otherList.stream()).distinct().count();
+  }
+
+  @Benchmark
+  public long intersect(Dataset data) {
+    return data.items.intersect(data.otherItems).count();
+  }
+
+  @Benchmark
+  public long intersectStream(Dataset data) {
+    Set<Integer> rhs = new HashSet<>(data.otherList);
+    return data.list.stream().filter(rhs::contains).count();
+  }
+
+  @Benchmark
+  public long except(Dataset data) {
+    return data.items.except(data.otherItems).count();
+  }
+
+  @Benchmark
+  public long exceptStream(Dataset data) {
+    Set<Integer> rhs = new HashSet<>(data.otherList);
+    return data.list.stream().filter(item -> !rhs.contains(item)).count();
+  }
+}
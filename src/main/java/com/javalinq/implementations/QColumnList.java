@@ -0,0 +1,604 @@
+package com.javalinq.implementations;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A list of records stored column by column (struct of arrays) instead of one object per
+ * record. Declare the columns up front, then add rows and set their values:
+ *
+ *   QColumnList trades = new QColumnList();
+ *   QColumnList.IntColumn quantity = trades.addIntColumn("quantity");
+ *   QColumnList.DoubleColumn price = trades.addDoubleColumn("price");
+ *   QColumnList.StringColumn symbol = trades.addStringColumn("symbol");
+ *
+ *   int row = trades.addRow();
+ *   quantity.set(row, 100);
+ *   ...
+ *   long total = trades.whereDouble(price, value -> value > 10).whereString(symbol, "ABC"::equals).sumInt(quantity);
+ *
+ * Each column is a primitive buffer (on the heap, or off heap in direct ByteBuffers when
+ * constructed with 'new QColumnList(true)'). String columns are dictionary encoded: each
+ * distinct string is stored once and rows hold its code, so a string predicate runs once per
+ * distinct value. The where/sum methods on columns run as plain loops over the buffers and
+ * return a Selection of matching rows. Row objects are only created when the list is iterated
+ * as a QIterable<Row>.
+ */
+public class QColumnList implements IndexedIterable<QColumnList.Row> {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final boolean isOffHeap;
+  private final List<Column> columns = new ArrayList<>();
+  private final QMap<String, Column> columnsByName = new QMap<>();
+  private int capacity = DEFAULT_CAPACITY;
+  private int size = 0;
+
+  public QColumnList() {
+    this(false);
+  }
+
+  public QColumnList(boolean isOffHeap) {
+    this.isOffHeap = isOffHeap;
+  }
+
+  public IntColumn addIntColumn(String name) {
+    return this.addColumn(new IntColumn(this, name));
+  }
+
+  public LongColumn addLongColumn(String name) {
+    return this.addColumn(new LongColumn(this, name));
+  }
+
+  public DoubleColumn addDoubleColumn(String name) {
+    return this.addColumn(new DoubleColumn(this, name));
+  }
+
+  public StringColumn addStringColumn(String name) {
+    return this.addColumn(new StringColumn(this, name));
+  }
+
+  private <C extends Column> C addColumn(C column) {
+    if (!columnsByName.add(column.name(), column)) {
+      throw new QueryException("Column '%s' already exists", column.name());
+    }
+
+    columns.add(column);
+    return column;
+  }
+
+  public Column column(String name) {
+    return columnsByName.get(name);
+  }
+
+  public QIterable<Column> columns() {
+    return new QList<>(columns);
+  }
+
+  /**
+   * Appends a row (every column zero, or null for strings) and returns its index.
+   */
+  public int addRow() {
+    if (size == capacity) {
+      capacity *= 2;
+      for (Column column : columns) column.grow(capacity);
+    }
+
+    // Rows past the size may hold values from before a clear().
+    for (Column column : columns) column.reset(size);
+    return size++;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Row get(int index) {
+    checkRow(index);
+    return new Row(index);
+  }
+
+  @Override
+  public Iterator<Row> iterator() {
+    return this.all().iterator();
+  }
+
+  public Selection all() {
+    return new Selection(null, size);
+  }
+
+  public Selection whereInt(IntColumn column, IntPredicate predicate) {
+    return this.all().whereInt(column, predicate);
+  }
+
+  public Selection whereLong(LongColumn column, LongPredicate predicate) {
+    return this.all().whereLong(column, predicate);
+  }
+
+  public Selection whereDouble(DoubleColumn column, DoublePredicate predicate) {
+    return this.all().whereDouble(column, predicate);
+  }
+
+  public Selection whereString(StringColumn column, Predicate<String> predicate) {
+    return this.all().whereString(column, predicate);
+  }
+
+  public long sumInt(IntColumn column) {
+    return this.all().sumInt(column);
+  }
+
+  public long sumLong(LongColumn column) {
+    return this.all().sumLong(column);
+  }
+
+  public double sumDouble(DoubleColumn column) {
+    return this.all().sumDouble(column);
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new QueryException("Row %s is out of range", row);
+    }
+  }
+
+  private ByteBuffer allocate(int bytes) {
+    return isOffHeap
+      ? ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder())
+      : ByteBuffer.allocate(bytes).order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * A view over one record. Reads and writes go straight to the columns.
+   */
+  public class Row {
+    private final int index;
+
+    private Row(int index) {
+      this.index = index;
+    }
+
+    public int index() { return index; }
+
+    public int getInt(IntColumn column) { return column.get(index); }
+    public long getLong(LongColumn column) { return column.get(index); }
+    public double getDouble(DoubleColumn column) { return column.get(index); }
+    public String getString(StringColumn column) { return column.get(index); }
+
+    public Object get(String name) {
+      return column(name).getObject(index);
+    }
+  }
+
+  /**
+   * A subset of the rows, in row order. Filters on a selection refine it further.
+   */
+  public class Selection implements IndexedIterable<Row> {
+    // Null means every row from 0 to count.
+    private final int[] rows;
+    private final int count;
+
+    private Selection(int[] rows, int count) {
+      this.rows = rows;
+      this.count = count;
+    }
+
+    public Selection whereInt(IntColumn column, IntPredicate predicate) {
+      return select(column.select(rows, count, predicate));
+    }
+
+    public Selection whereLong(LongColumn column, LongPredicate predicate) {
+      return select(column.select(rows, count, predicate));
+    }
+
+    public Selection whereDouble(DoubleColumn column, DoublePredicate predicate) {
+      return select(column.select(rows, count, predicate));
+    }
+
+    public Selection whereString(StringColumn column, Predicate<String> predicate) {
+      return select(column.select(rows, count, predicate));
+    }
+
+    private Selection select(int[] matches) {
+      return new Selection(matches, matches.length);
+    }
+
+    public long sumInt(IntColumn column) {
+      return column.sum(rows, count);
+    }
+
+    public long sumLong(LongColumn column) {
+      return column.sum(rows, count);
+    }
+
+    public double sumDouble(DoubleColumn column) {
+      return column.sum(rows, count);
+    }
+
+    public int[] toIntArray(IntColumn column) {
+      return column.values(rows, count);
+    }
+
+    public long[] toLongArray(LongColumn column) {
+      return column.values(rows, count);
+    }
+
+    public double[] toDoubleArray(DoubleColumn column) {
+      return column.values(rows, count);
+    }
+
+    public int rowAt(int index) {
+      return (rows == null) ? index : rows[index];
+    }
+
+    @Override
+    public int size() {
+      return count;
+    }
+
+    @Override
+    public Row get(int index) {
+      if (index < 0 || index >= count) {
+        throw new QueryException("Index %s is out of range", index);
+      }
+
+      return new Row(rowAt(index));
+    }
+
+    @Override
+    public Iterator<Row> iterator() {
+      return new Iterator<Row>() {
+        private int index = 0;
+
+        @Override
+        public boolean hasNext() {
+          return index < count;
+        }
+
+        @Override
+        public Row next() {
+          if (index >= count) throw new NoSuchElementException();
+          return new Row(rowAt(index++));
+        }
+      };
+    }
+  }
+
+  public static abstract class Column {
+    protected final QColumnList owner;
+    private final String name;
+
+    protected Column(QColumnList owner, String name) {
+      this.owner = owner;
+      this.name = name;
+    }
+
+    public String name() { return name; }
+
+    protected abstract void grow(int capacity);
+
+    // Puts the row back to zero (or null).
+    protected abstract void reset(int row);
+
+    public abstract Object getObject(int row);
+
+    protected static int[] trim(int[] matches, int found) {
+      return (found == matches.length) ? matches : Arrays.copyOf(matches, found);
+    }
+  }
+
+  public static class IntColumn extends Column {
+    private IntBuffer values;
+
+    private IntColumn(QColumnList owner, String name) {
+      super(owner, name);
+      this.values = owner.allocate(owner.capacity * 4).asIntBuffer();
+    }
+
+    public int get(int row) {
+      owner.checkRow(row);
+      return values.get(row);
+    }
+
+    public void set(int row, int value) {
+      owner.checkRow(row);
+      values.put(row, value);
+    }
+
+    @Override
+    public Object getObject(int row) {
+      return get(row);
+    }
+
+    @Override
+    protected void grow(int capacity) {
+      IntBuffer grown = owner.allocate(capacity * 4).asIntBuffer();
+      for (int row = 0; row < owner.size; row++) grown.put(row, values.get(row));
+      values = grown;
+    }
+
+    @Override
+    protected void reset(int row) {
+      values.put(row, 0);
+    }
+
+    private int[] select(int[] rows, int count, IntPredicate predicate) {
+      IntBuffer values = this.values;
+      int[] matches = new int[count];
+      int found = 0;
+
+      if (rows == null) {
+        for (int row = 0; row < count; row++) {
+          if (predicate.test(values.get(row))) matches[found++] = row;
+        }
+      } else {
+        for (int index = 0; index < count; index++) {
+          int row = rows[index];
+          if (predicate.test(values.get(row))) matches[found++] = row;
+        }
+      }
+
+      return trim(matches, found);
+    }
+
+    private long sum(int[] rows, int count) {
+      IntBuffer values = this.values;
+      long sum = 0;
+
+      if (rows == null) {
+        for (int row = 0; row < count; row++) sum += values.get(row);
+      } else {
+        for (int index = 0; index < count; index++) sum += values.get(rows[index]);
+      }
+
+      return sum;
+    }
+
+    private int[] values(int[] rows, int count) {
+      int[] result = new int[count];
+      for (int index = 0; index < count; index++) result[index] = values.get(rows == null ? index : rows[index]);
+      return result;
+    }
+  }
+
+  public static class LongColumn extends Column {
+    private LongBuffer values;
+
+    private LongColumn(QColumnList owner, String name) {
+      super(owner, name);
+      this.values = owner.allocate(owner.capacity * 8).asLongBuffer();
+    }
+
+    public long get(int row) {
+      owner.checkRow(row);
+      return values.get(row);
+    }
+
+    public void set(int row, long value) {
+      owner.checkRow(row);
+      values.put(row, value);
+    }
+
+    @Override
+    public Object getObject(int row) {
+      return get(row);
+    }
+
+    @Override
+    protected void grow(int capacity) {
+      LongBuffer grown = owner.allocate(capacity * 8).asLongBuffer();
+      for (int row = 0; row < owner.size; row++) grown.put(row, values.get(row));
+      values = grown;
+    }
+
+    @Override
+    protected void reset(int row) {
+      values.put(row, 0);
+    }
+
+    private int[] select(int[] rows, int count, LongPredicate predicate) {
+      LongBuffer values = this.values;
+      int[] matches = new int[count];
+      int found = 0;
+
+      if (rows == null) {
+        for (int row = 0; row < count; row++) {
+          if (predicate.test(values.get(row))) matches[found++] = row;
+        }
+      } else {
+        for (int index = 0; index < count; index++) {
+          int row = rows[index];
+          if (predicate.test(values.get(row))) matches[found++] = row;
+        }
+      }
+
+      return trim(matches, found);
+    }
+
+    private long sum(int[] rows, int count) {
+      LongBuffer values = this.values;
+      long sum = 0;
+
+      if (rows == null) {
+        for (int row = 0; row < count; row++) sum += values.get(row);
+      } else {
+        for (int index = 0; index < count; index++) sum += values.get(rows[index]);
+      }
+
+      return sum;
+    }
+
+    private long[] values(int[] rows, int count) {
+      long[] result = new long[count];
+      for (int index = 0; index < count; index++) result[index] = values.get(rows == null ? index : rows[index]);
+      return result;
+    }
+  }
+
+  public static class DoubleColumn extends Column {
+    private DoubleBuffer values;
+
+    private DoubleColumn(QColumnList owner, String name) {
+      super(owner, name);
+      this.values = owner.allocate(owner.capacity * 8).asDoubleBuffer();
+    }
+
+    public double get(int row) {
+      owner.checkRow(row);
+      return values.get(row);
+    }
+
+    public void set(int row, double value) {
+      owner.checkRow(row);
+      values.put(row, value);
+    }
+
+    @Override
+    public Object getObject(int row) {
+      return get(row);
+    }
+
+    @Override
+    protected void grow(int capacity) {
+      DoubleBuffer grown = owner.allocate(capacity * 8).asDoubleBuffer();
+      for (int row = 0; row < owner.size; row++) grown.put(row, values.get(row));
+      values = grown;
+    }
+
+    @Override
+    protected void reset(int row) {
+      values.put(row, 0);
+    }
+
+    private int[] select(int[] rows, int count, DoublePredicate predicate) {
+      DoubleBuffer values = this.values;
+      int[] matches = new int[count];
+      int found = 0;
+
+      if (rows == null) {
+        for (int row = 0; row < count; row++) {
+          if (predicate.test(values.get(row))) matches[found++] = row;
+        }
+      } else {
+        for (int index = 0; index < count; index++) {
+          int row = rows[index];
+          if (predicate.test(values.get(row))) matches[found++] = row;
+        }
+      }
+
+      return trim(matches, found);
+    }
+
+    private double sum(int[] rows, int count) {
+      DoubleBuffer values = this.values;
+      double sum = 0;
+
+      if (rows == null) {
+        for (int row = 0; row < count; row++) sum += values.get(row);
+      } else {
+        for (int index = 0; index < count; index++) sum += values.get(rows[index]);
+      }
+
+      return sum;
+    }
+
+    private double[] values(int[] rows, int count) {
+      double[] result = new double[count];
+      for (int index = 0; index < count; index++) result[index] = values.get(rows == null ? index : rows[index]);
+      return result;
+    }
+  }
+
+  /**
+   * Dictionary encoded strings: each distinct value is stored once, rows hold its code
+   * (or -1 for null). Null rows never match a predicate.
+   */
+  public static class StringColumn extends Column {
+    private static final int NULL_CODE = -1;
+
+    private final QMap<String, Integer> codes = new QMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+    private IntBuffer values;
+
+    private StringColumn(QColumnList owner, String name) {
+      super(owner, name);
+      this.values = owner.allocate(owner.capacity * 4).asIntBuffer();
+      for (int row = 0; row < owner.capacity; row++) values.put(row, NULL_CODE);
+    }
+
+    public String get(int row) {
+      owner.checkRow(row);
+      int code = values.get(row);
+      return (code == NULL_CODE) ? null : dictionary.get(code);
+    }
+
+    public void set(int row, String value) {
+      owner.checkRow(row);
+      values.put(row, (value == null) ? NULL_CODE : codes.computeIfAbsent(value, this::encode));
+    }
+
+    private int encode(String value) {
+      dictionary.add(value);
+      return dictionary.size() - 1;
+    }
+
+    public int distinctCount() {
+      return dictionary.size();
+    }
+
+    @Override
+    public Object getObject(int row) {
+      return get(row);
+    }
+
+    @Override
+    protected void grow(int capacity) {
+      IntBuffer grown = owner.allocate(capacity * 4).asIntBuffer();
+      for (int row = 0; row < capacity; row++) grown.put(row, (row < owner.size) ? values.get(row) : NULL_CODE);
+      values = grown;
+    }
+
+    @Override
+    protected void reset(int row) {
+      values.put(row, NULL_CODE);
+    }
+
+    private int[] select(int[] rows, int count, Predicate<String> predicate) {
+      // Test every distinct value once, then match rows on their codes.
+      boolean[] accepted = new boolean[dictionary.size()];
+      for (int code = 0; code < accepted.length; code++) accepted[code] = predicate.test(dictionary.get(code));
+
+      IntBuffer values = this.values;
+      int[] matches = new int[count];
+      int found = 0;
+
+      for (int index = 0; index < count; index++) {
+        int row = (rows == null) ? index : rows[index];
+        int code = values.get(row);
+        if (code != NULL_CODE && accepted[code]) matches[found++] = row;
+      }
+
+      return trim(matches, found);
+    }
+  }
+}
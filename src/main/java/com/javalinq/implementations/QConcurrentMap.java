@@ -0,0 +1,173 @@
+package com.javalinq.implementations;
+
+import com.javalinq.exceptions.IterableMapException;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.SizedIterable;
+import com.javalinq.tools.KeyValuePair;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A QMap that can be shared between threads, backed by a ConcurrentHashMap: reads never
+ * lock, writes lock only the bin they touch, and resizing is shared out between the
+ * threads writing at the time. computeIfAbsent and merge are atomic, so parallel
+ * aggregation can merge straight into one map.
+ *
+ * Iteration is weakly consistent: it never throws, sees every entry present when it
+ * started that isn't removed, and may or may not see later changes. count() is a snapshot.
+ * Neither keys nor values may be null.
+ */
+public class QConcurrentMap<T, U> implements SizedIterable<KeyValuePair<T, U>> {
+  private final ConcurrentHashMap<T, U> map;
+
+  public QConcurrentMap() {
+    this.map = new ConcurrentHashMap<>();
+  }
+
+  public QConcurrentMap(int expectedSize) {
+    this.map = new ConcurrentHashMap<>(expectedSize);
+  }
+
+  public boolean containsKey(T key) {
+    return map.containsKey(key);
+  }
+
+  @Override
+  public long count() { return map.mappingCount(); }
+
+  @Override
+  public int size() { return map.size(); }
+
+  /**
+   * Adds the key if it isn't already present.
+   * @return false if the key already existed (the value is left unchanged).
+   */
+  public boolean add(T key, U value) {
+    return map.putIfAbsent(key, value) == null;
+  }
+
+  /**
+   * @return the previous value, or null if there wasn't one.
+   */
+  public U put(T key, U value) {
+    return map.put(key, value);
+  }
+
+  /**
+   * The factory runs at most once per key, while other writers to the same bin wait,
+   * so keep it short.
+   */
+  public U computeIfAbsent(T key, Function<? super T, ? extends U> factory) {
+    return map.computeIfAbsent(key, factory);
+  }
+
+  /**
+   * Atomically stores the value if the key is absent, otherwise replaces the existing
+   * value with remapping(existing, value).
+   * @return the value now associated with the key.
+   */
+  public U merge(T key, U value, BiFunction<? super U, ? super U, ? extends U> remapping) {
+    return map.merge(key, value, remapping);
+  }
+
+  public boolean remove(T key) {
+    return map.remove(key) != null;
+  }
+
+  public U get(T key) {
+    U value = map.get(key);
+    if (value == null) {
+      throw new IterableMapException("No such item.");
+    }
+
+    return value;
+  }
+
+  public U getOrDefault(T key, U defaultValue) {
+    return map.getOrDefault(key, defaultValue);
+  }
+
+  public void clear() {
+    map.clear();
+  }
+
+  /**
+   * A copy of the current entries as an ordinary (single threaded) QMap.
+   */
+  public QMap<T, U> toMap() {
+    QMap<T, U> copy = new QMap<>(map.size());
+    map.forEach(copy::put);
+    return copy;
+  }
+
+  public void forEachEntry(BiConsumer<? super T, ? super U> action) {
+    map.forEach(action);
+  }
+
+  public QIterable<T> keys() {
+    return new QIterable<T>() {
+      @Override
+      public Iterator<T> iterator() {
+        return map.keySet().iterator();
+      }
+
+      @Override
+      public Spliterator<T> spliterator() {
+        return map.keySet().spliterator();
+      }
+    };
+  }
+
+  public QIterable<U> values() {
+    return new QIterable<U>() {
+      @Override
+      public Iterator<U> iterator() {
+        return map.values().iterator();
+      }
+
+      @Override
+      public Spliterator<U> spliterator() {
+        return map.values().spliterator();
+      }
+    };
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<KeyValuePair<T, U>> action) {
+    for (Map.Entry<T, U> entry : map.entrySet()) {
+      if (!action.test(new KeyValuePair<>(entry.getKey(), entry.getValue()))) return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public Iterator<KeyValuePair<T, U>> iterator() {
+    final Iterator<Map.Entry<T, U>> entries = map.entrySet().iterator();
+
+    return new Iterator<KeyValuePair<T, U>>() {
+      @Override
+      public boolean hasNext() {
+        return entries.hasNext();
+      }
+
+      @Override
+      public KeyValuePair<T, U> next() {
+        Map.Entry<T, U> entry = entries.next();
+        return new KeyValuePair<>(entry.getKey(), entry.getValue());
+      }
+    };
+  }
+
+  @Override
+  public Spliterator<KeyValuePair<T, U>> spliterator() {
+    return map.entrySet().stream().map(entry -> new KeyValuePair<>(entry.getKey(), entry.getValue())).spliterator();
+  }
+}
@@ -0,0 +1,93 @@
+package com.javalinq.implementations;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.QDoubleIterable;
+
+import java.util.Arrays;
+import java.util.function.DoublePredicate;
+
+/**
+ * A growable list of doubles backed by a double[], so a million values cost eight megabytes
+ * rather than a million Doubles.
+ */
+public class QDoubleList implements QDoubleIterable {
+  private static final int DEFAULT_CAPACITY = 10;
+
+  private double[] items;
+  private int size;
+
+  public QDoubleList() {
+    this.items = new double[DEFAULT_CAPACITY];
+  }
+
+  public QDoubleList(double... items) {
+    this.items = Arrays.copyOf(items, Math.max(items.length, DEFAULT_CAPACITY));
+    this.size = items.length;
+  }
+
+  public void add(double item) {
+    if (size == items.length) {
+      items = Arrays.copyOf(items, items.length + (items.length >> 1) + 1);
+    }
+
+    items[size++] = item;
+  }
+
+  public void add(QDoubleIterable items) {
+    items.forEach(this::add);
+  }
+
+  public double get(int index) {
+    checkIndex(index);
+    return items[index];
+  }
+
+  public double set(int index, double item) {
+    checkIndex(index);
+    double previous = items[index];
+    items[index] = item;
+    return previous;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new QueryException("Index %s is out of range", index);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Sorts this list, rather than a copy of it.
+   */
+  public void sortInPlace() {
+    Arrays.sort(items, 0, size);
+  }
+
+  @Override
+  public boolean forEachWhile(DoublePredicate action) {
+    double[] items = this.items;
+    int size = this.size;
+    for (int index = 0; index < size; index++) {
+      if (!action.test(items[index])) return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public long count() {
+    return size;
+  }
+
+  @Override
+  public double[] toArray() {
+    return Arrays.copyOf(items, size);
+  }
+}
@@ -0,0 +1,313 @@
+package com.javalinq.implementations;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.tools.Partition;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A list that keeps hash indexes on the keys it's told about, so equality lookups don't
+ * scan the whole list:
+ *
+ *   QIndexedList<Order> orders = new QIndexedList<>();
+ *   QIndexedList<Order>.Index<String> byRegion = orders.addIndex(order -> order.region);
+ *   QIterable<Order> european = orders.whereKey(byRegion, "EU");
+ *
+ * Every index is updated by add, remove, set and clear. An Index is also the key function
+ * it was built from, so passing one to distinct or parition reuses its groups instead
+ * of hashing every item again.
+ *
+ * As with a map, an item's keys must not change while it's in the list.
+ */
+public class QIndexedList<T> implements IndexedIterable<T> {
+  // QMap doesn't take null keys, so items with a null key are filed under this instead.
+  private static final Object NULL_KEY = new Object();
+
+  private final QList<T> items = new QList<>();
+  private final QList<Index<?>> indexes = new QList<>();
+
+  public QIndexedList() {
+  }
+
+  public QIndexedList(Iterable<T> items) {
+    this.add(items);
+  }
+
+  /**
+   * Indexes the items already in the list, and every item added after.
+   */
+  public <K> Index<K> addIndex(Function<T, K> onKey) {
+    Index<K> index = new Index<>(onKey);
+    items.forEach(index::insert);
+    indexes.add(index);
+    return index;
+  }
+
+  public void add(T item) {
+    items.add(item);
+    for (Index<?> index : indexes) index.insert(item);
+  }
+
+  public void add(Iterable<T> items) {
+    for (T item : items) this.add(item);
+  }
+
+  /**
+   * Usually O(size of the item's bucket) per index. When the bucket holds other items equal
+   * to this one, finding the right one scans the list up to 'index'.
+   */
+  public void remove(int index) {
+    T item = items.get(index);
+    items.remove(index);
+    for (Index<?> keyIndex : indexes) keyIndex.delete(index, item);
+  }
+
+  public void remove(T item) {
+    int position = items.indexOf(item);
+    if (position >= 0) this.remove(position);
+  }
+
+  /**
+   * Costs the same as remove(int) when the item keeps its key. An item whose key changes is
+   * placed in its new bucket by scanning the list up to 'index', so that's O(index) per index.
+   */
+  public T set(int index, T item) {
+    T previous = items.set(index, item);
+    for (Index<?> keyIndex : indexes) keyIndex.replace(index, previous, item);
+
+    return previous;
+  }
+
+  public void clear() {
+    items.clear();
+    for (Index<?> index : indexes) index.buckets.clear();
+  }
+
+  /**
+   * The items with the given key, in list order. This is a read only live view: it looks
+   * the key up again on each read, so it reflects later changes to the list.
+   */
+  public <K> IndexedIterable<T> whereKey(Index<K> index, K key) {
+    return new KeyView<>(index, key);
+  }
+
+  public <K> T firstByKey(Index<K> index, K key) {
+    QList<T> bucket = index.bucketFor(key);
+    if (bucket == null) {
+      throw new QueryException("Sequence contains no items");
+    }
+
+    return bucket.get(0);
+  }
+
+  public <K> T firstOrNullByKey(Index<K> index, K key) {
+    QList<T> bucket = index.bucketFor(key);
+    return (bucket != null) ? bucket.get(0) : null;
+  }
+
+  public <K> boolean containsKey(Index<K> index, K key) {
+    return index.bucketFor(key) != null;
+  }
+
+  /**
+   * Given one of this list's indexes, takes the first item added for each key straight
+   * from the index (in the index's key order, rather than list order).
+   */
+  @Override
+  public <U> QIterable<T> distinct(Function<T, U> onProperty) {
+    Index<?> index = indexFor(onProperty);
+    if (index == null) return IndexedIterable.super.distinct(onProperty);
+
+    return index.buckets.values().map(bucket -> bucket.get(0));
+  }
+
+  /**
+   * Given one of this list's indexes, copies its groups rather than hashing every item.
+   */
+  @Override
+  public <U> Partition<U, T> parition(Function<T, U> onProperty) {
+    Index<?> index = indexFor(onProperty);
+    if (index == null) return IndexedIterable.super.parition(onProperty);
+
+    Map<U, QList<T>> groups = new HashMap<>(index.buckets.size() * 2);
+    index.buckets.forEachEntry((key, bucket) -> groups.put((key == NULL_KEY) ? null : (U) key, new QList<>(bucket)));
+    return new Partition<>(groups);
+  }
+
+  private class KeyView<K> implements IndexedIterable<T> {
+    private final Index<K> index;
+    private final K key;
+
+    public KeyView(Index<K> index, K key) {
+      this.index = index;
+      this.key = key;
+    }
+
+    private List<T> bucket() {
+      QList<T> bucket = index.bucketFor(key);
+      return (bucket != null) ? bucket.list : Collections.emptyList();
+    }
+
+    @Override
+    public T get(int position) {
+      List<T> bucket = this.bucket();
+      if (position < 0 || position >= bucket.size()) {
+        throw new QueryException("Index %s is out of range", position);
+      }
+
+      return bucket.get(position);
+    }
+
+    @Override
+    public int size() {
+      return this.bucket().size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return Collections.unmodifiableList(this.bucket()).iterator();
+    }
+
+    @Override
+    public boolean forEachWhile(Predicate<T> action) {
+      for (T item : this.bucket()) {
+        if (!action.test(item)) return false;
+      }
+
+      return true;
+    }
+  }
+
+  private Index<?> indexFor(Function<?, ?> onProperty) {
+    if (!(onProperty instanceof Index)) return null;
+
+    Index<?> index = (Index<?>) onProperty;
+    return (index.owner() == this) ? index : null;
+  }
+
+  @Override
+  public T get(int index) {
+    return items.get(index);
+  }
+
+  @Override
+  public int size() {
+    return items.size();
+  }
+
+  @Override
+  public long count() {
+    return items.count();
+  }
+
+  public int indexOf(T item) {
+    return items.indexOf(item);
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return items.iterator();
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    return items.forEachWhile(action);
+  }
+
+  @Override
+  public Spliterator<T> spliterator() {
+    return items.spliterator();
+  }
+
+  /**
+   * A hash index from key to the items with that key. Applying it to an item gives the item's key.
+   */
+  public class Index<K> implements Function<T, K> {
+    private final Function<T, K> onKey;
+    private final QMap<Object, QList<T>> buckets = new QMap<>();
+
+    private Index(Function<T, K> onKey) {
+      this.onKey = onKey;
+    }
+
+    private QIndexedList<T> owner() {
+      return QIndexedList.this;
+    }
+
+    @Override
+    public K apply(T item) {
+      return onKey.apply(item);
+    }
+
+    /**
+     * The distinct keys in the index.
+     */
+    public QIterable<K> keys() {
+      return buckets.keys().map(key -> (key == NULL_KEY) ? null : (K) key);
+    }
+
+    private Object keyOf(T item) {
+      K key = onKey.apply(item);
+      return (key != null) ? key : NULL_KEY;
+    }
+
+    private QList<T> bucketFor(K key) {
+      return buckets.getOrDefault((key != null) ? key : NULL_KEY, null);
+    }
+
+    private void insert(T item) {
+      buckets.computeIfAbsent(keyOf(item), missing -> new QList<>()).add(item);
+    }
+
+    /**
+     * Swaps the item at a list position for another, keeping each bucket in list order.
+     */
+    private void replace(int position, T previous, T item) {
+      Object key = keyOf(item);
+      if (key.equals(keyOf(previous))) {
+        List<T> bucket = buckets.getOrDefault(key, null).list;
+        bucket.set(slotOf(bucket, position, key, previous), item);
+        return;
+      }
+
+      delete(position, previous);
+      buckets.computeIfAbsent(key, missing -> new QList<>()).list.add(countBefore(position, key), item);
+    }
+
+    // How many items with the key come before the list position, which is where an item
+    // at that position belongs in the key's bucket.
+    private int countBefore(int position, Object key) {
+      int count = 0;
+      for (int index = 0; index < position; index++) {
+        if (key.equals(keyOf(items.get(index)))) count++;
+      }
+
+      return count;
+    }
+
+    // Where the item at a list position sits in its bucket. Items equal to it can't be told
+    // apart by indexOf, so then the position is worked out from the list.
+    private int slotOf(List<T> bucket, int position, Object key, T item) {
+      int slot = bucket.indexOf(item);
+      return (slot == bucket.lastIndexOf(item)) ? slot : countBefore(position, key);
+    }
+
+    private void delete(int position, T item) {
+      Object key = keyOf(item);
+      QList<T> bucket = buckets.getOrDefault(key, null);
+      if (bucket == null) return;
+
+      bucket.list.remove(slotOf(bucket.list, position, key, item));
+      if (bucket.size() == 0) buckets.remove(key);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.javalinq.implementations;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.QIntIterable;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A growable list of ints backed by an int[], so a million values cost four megabytes
+ * rather than a million Integers.
+ */
+public class QIntList implements QIntIterable {
+  private static final int DEFAULT_CAPACITY = 10;
+
+  private int[] items;
+  private int size;
+
+  public QIntList() {
+    this.items = new int[DEFAULT_CAPACITY];
+  }
+
+  public QIntList(int... items) {
+    this.items = Arrays.copyOf(items, Math.max(items.length, DEFAULT_CAPACITY));
+    this.size = items.length;
+  }
+
+  public void add(int item) {
+    if (size == items.length) {
+      items = Arrays.copyOf(items, items.length + (items.length >> 1) + 1);
+    }
+
+    items[size++] = item;
+  }
+
+  public void add(QIntIterable items) {
+    items.forEach(this::add);
+  }
+
+  public int get(int index) {
+    checkIndex(index);
+    return items[index];
+  }
+
+  public int set(int index, int item) {
+    checkIndex(index);
+    int previous = items[index];
+    items[index] = item;
+    return previous;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new QueryException("Index %s is out of range", index);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Sorts this list, rather than a copy of it.
+   */
+  public void sortInPlace() {
+    Arrays.sort(items, 0, size);
+  }
+
+  @Override
+  public boolean forEachWhile(IntPredicate action) {
+    int[] items = this.items;
+    int size = this.size;
+    for (int index = 0; index < size; index++) {
+      if (!action.test(items[index])) return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public long count() {
+    return size;
+  }
+
+  @Override
+  public int[] toArray() {
+    return Arrays.copyOf(items, size);
+  }
+}
@@ -0,0 +1,171 @@
+package com.javalinq.implementations;
+
+import com.javalinq.exceptions.IterableMapException;
+import com.javalinq.interfaces.QIntIterable;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * An open addressing set of ints, probed the same way as QMap. The keys live in a
+ * single int[], with 0 marking a free slot; zero itself is tracked by a flag so it
+ * can still be a member.
+ */
+public class QIntSet implements QIntIterable {
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+  private static final int FREE = 0;
+
+  private int[] keys;
+  private int mask;
+  private int threshold;
+  private int count;
+  private boolean hasZero;
+
+  public QIntSet() {
+    allocate(DEFAULT_CAPACITY);
+  }
+
+  public QIntSet(int... items) {
+    allocate(capacityFor(items.length));
+    for (int item : items) this.add(item);
+  }
+
+  // Keep the table at most half full, linear probing degrades quickly past that.
+  private static int capacityFor(int expectedSize) {
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity < MAXIMUM_CAPACITY && capacity / 2 < expectedSize) capacity <<= 1;
+    return capacity;
+  }
+
+  private void allocate(int capacity) {
+    this.keys = new int[capacity];
+    this.mask = capacity - 1;
+    this.threshold = capacity / 2;
+  }
+
+  private static int hash(int key) {
+    int hash = key * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Finds the slot holding the (non zero) key, or if the key is absent, the bitwise
+   * complement of the free slot it would be inserted into.
+   */
+  private int probe(int key) {
+    for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+      int current = keys[index];
+      if (current == FREE) return ~index;
+      if (current == key) return index;
+    }
+  }
+
+  /**
+   * @return false if the item was already present.
+   */
+  public boolean add(int item) {
+    if (item == FREE) {
+      if (hasZero) return false;
+
+      hasZero = true;
+      count++;
+      return true;
+    }
+
+    int slot = probe(item);
+    if (slot >= 0) return false;
+
+    keys[~slot] = item;
+    if (++count > threshold) {
+      resize();
+    }
+
+    return true;
+  }
+
+  public boolean contains(int item) {
+    return (item == FREE) ? hasZero : probe(item) >= 0;
+  }
+
+  public boolean remove(int item) {
+    if (item == FREE) {
+      if (!hasZero) return false;
+
+      hasZero = false;
+      count--;
+      return true;
+    }
+
+    int slot = probe(item);
+    if (slot < 0) return false;
+
+    deleteAt(slot);
+    return true;
+  }
+
+  // Backward shift deletion, as in QMap.
+  private void deleteAt(int index) {
+    int hole = index;
+    keys[hole] = FREE;
+
+    for (int next = (hole + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        keys[next] = FREE;
+        hole = next;
+      }
+    }
+
+    count--;
+  }
+
+  private void resize() {
+    if (keys.length == MAXIMUM_CAPACITY) {
+      throw new IterableMapException("QIntSet cannot grow past %s slots.", MAXIMUM_CAPACITY);
+    }
+
+    int[] oldKeys = this.keys;
+    allocate(oldKeys.length * 2);
+
+    for (int key : oldKeys) {
+      if (key == FREE) continue;
+
+      int index = hash(key) & mask;
+      while (keys[index] != FREE) index = (index + 1) & mask;
+      keys[index] = key;
+    }
+  }
+
+  public int size() {
+    return count;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    hasZero = false;
+    count = 0;
+  }
+
+  @Override
+  public long count() {
+    return count;
+  }
+
+  @Override
+  public QIntIterable distinct() {
+    return this;
+  }
+
+  @Override
+  public boolean forEachWhile(IntPredicate action) {
+    if (hasZero && !action.test(0)) return false;
+
+    for (int key : keys) {
+      if (key != FREE && !action.test(key)) return false;
+    }
+
+    return true;
+  }
+}
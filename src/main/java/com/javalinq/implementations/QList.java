@@ -1,16 +1,20 @@
 package com.javalinq.implementations;
 
 
-import com.javalinq.interfaces.QIterable;
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.IndexedIterable;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Created by sircodesalot on 14-5-30.
  */
-public class QList<T> implements QIterable<T> {
+public class QList<T> implements IndexedIterable<T> {
   List<T> list = new ArrayList<>();
 
   public QList() {
@@ -47,6 +51,25 @@ public class QList<T> implements QIterable<T> {
     for (T item : items) this.add(item);
   }
 
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    List<T> list = this.list;
+    for (int index = 0, size = list.size(); index < size; index++) {
+      if (!action.test(list.get(index))) return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public Spliterator<T> spliterator() {
+    return this.list.spliterator();
+  }
+
+  public T set(int index, T item) {
+    return this.list.set(index, item);
+  }
+
   @Override
   public T get(int index) {
     return this.list.get(index);
@@ -57,6 +80,26 @@ public class QList<T> implements QIterable<T> {
     return (U) this.list.get(index);
   }
 
+  /**
+   * A view of the items in [from, to). Changes to either list show in the other, and the
+   * view must not be used after the backing list changes size.
+   */
+  public QList<T> subList(int from, int to) {
+    QList<T> view = new QList<>();
+    view.list = this.list.subList(from, to);
+    return view;
+  }
+
+  // Hands out subList views of the backing list instead of copying each batch.
+  @Override
+  public void forEachBatch(int size, Consumer<QList<T>> action) {
+    if (size <= 0) throw new QueryException("Batch size must be positive, was %s", size);
+
+    for (int from = 0, count = list.size(); from < count; from += size) {
+      action.accept(this.subList(from, Math.min(count, from + size)));
+    }
+  }
+
   public int indexOf(T item) {
     return this.list.indexOf(item);
   }
@@ -65,6 +108,7 @@ public class QList<T> implements QIterable<T> {
     this.list.clear();
   }
 
+  @Override
   public int size() {
     return list.size();
   }
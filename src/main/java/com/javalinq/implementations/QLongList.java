@@ -0,0 +1,93 @@
+package com.javalinq.implementations;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.QLongIterable;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * A growable list of longs backed by a long[], so a million values cost eight megabytes
+ * rather than a million Longs.
+ */
+public class QLongList implements QLongIterable {
+  private static final int DEFAULT_CAPACITY = 10;
+
+  private long[] items;
+  private int size;
+
+  public QLongList() {
+    this.items = new long[DEFAULT_CAPACITY];
+  }
+
+  public QLongList(long... items) {
+    this.items = Arrays.copyOf(items, Math.max(items.length, DEFAULT_CAPACITY));
+    this.size = items.length;
+  }
+
+  public void add(long item) {
+    if (size == items.length) {
+      items = Arrays.copyOf(items, items.length + (items.length >> 1) + 1);
+    }
+
+    items[size++] = item;
+  }
+
+  public void add(QLongIterable items) {
+    items.forEach(this::add);
+  }
+
+  public long get(int index) {
+    checkIndex(index);
+    return items[index];
+  }
+
+  public long set(int index, long item) {
+    checkIndex(index);
+    long previous = items[index];
+    items[index] = item;
+    return previous;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new QueryException("Index %s is out of range", index);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Sorts this list, rather than a copy of it.
+   */
+  public void sortInPlace() {
+    Arrays.sort(items, 0, size);
+  }
+
+  @Override
+  public boolean forEachWhile(LongPredicate action) {
+    long[] items = this.items;
+    int size = this.size;
+    for (int index = 0; index < size; index++) {
+      if (!action.test(items[index])) return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public long count() {
+    return size;
+  }
+
+  @Override
+  public long[] toArray() {
+    return Arrays.copyOf(items, size);
+  }
+}
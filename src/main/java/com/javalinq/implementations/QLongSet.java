@@ -0,0 +1,171 @@
+package com.javalinq.implementations;
+
+import com.javalinq.exceptions.IterableMapException;
+import com.javalinq.interfaces.QLongIterable;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * An open addressing set of longs, probed the same way as QMap. The keys live in a
+ * single long[], with 0 marking a free slot; zero itself is tracked by a flag so it
+ * can still be a member.
+ */
+public class QLongSet implements QLongIterable {
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+  private static final long FREE = 0;
+
+  private long[] keys;
+  private int mask;
+  private int threshold;
+  private int count;
+  private boolean hasZero;
+
+  public QLongSet() {
+    allocate(DEFAULT_CAPACITY);
+  }
+
+  public QLongSet(long... items) {
+    allocate(capacityFor(items.length));
+    for (long item : items) this.add(item);
+  }
+
+  // Keep the table at most half full, linear probing degrades quickly past that.
+  private static int capacityFor(int expectedSize) {
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity < MAXIMUM_CAPACITY && capacity / 2 < expectedSize) capacity <<= 1;
+    return capacity;
+  }
+
+  private void allocate(int capacity) {
+    this.keys = new long[capacity];
+    this.mask = capacity - 1;
+    this.threshold = capacity / 2;
+  }
+
+  private static int hash(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  /**
+   * Finds the slot holding the (non zero) key, or if the key is absent, the bitwise
+   * complement of the free slot it would be inserted into.
+   */
+  private int probe(long key) {
+    for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+      long current = keys[index];
+      if (current == FREE) return ~index;
+      if (current == key) return index;
+    }
+  }
+
+  /**
+   * @return false if the item was already present.
+   */
+  public boolean add(long item) {
+    if (item == FREE) {
+      if (hasZero) return false;
+
+      hasZero = true;
+      count++;
+      return true;
+    }
+
+    int slot = probe(item);
+    if (slot >= 0) return false;
+
+    keys[~slot] = item;
+    if (++count > threshold) {
+      resize();
+    }
+
+    return true;
+  }
+
+  public boolean contains(long item) {
+    return (item == FREE) ? hasZero : probe(item) >= 0;
+  }
+
+  public boolean remove(long item) {
+    if (item == FREE) {
+      if (!hasZero) return false;
+
+      hasZero = false;
+      count--;
+      return true;
+    }
+
+    int slot = probe(item);
+    if (slot < 0) return false;
+
+    deleteAt(slot);
+    return true;
+  }
+
+  // Backward shift deletion, as in QMap.
+  private void deleteAt(int index) {
+    int hole = index;
+    keys[hole] = FREE;
+
+    for (int next = (hole + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        keys[next] = FREE;
+        hole = next;
+      }
+    }
+
+    count--;
+  }
+
+  private void resize() {
+    if (keys.length == MAXIMUM_CAPACITY) {
+      throw new IterableMapException("QLongSet cannot grow past %s slots.", MAXIMUM_CAPACITY);
+    }
+
+    long[] oldKeys = this.keys;
+    allocate(oldKeys.length * 2);
+
+    for (long key : oldKeys) {
+      if (key == FREE) continue;
+
+      int index = hash(key) & mask;
+      while (keys[index] != FREE) index = (index + 1) & mask;
+      keys[index] = key;
+    }
+  }
+
+  public int size() {
+    return count;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    hasZero = false;
+    count = 0;
+  }
+
+  @Override
+  public long count() {
+    return count;
+  }
+
+  @Override
+  public QLongIterable distinct() {
+    return this;
+  }
+
+  @Override
+  public boolean forEachWhile(LongPredicate action) {
+    if (hasZero && !action.test(0)) return false;
+
+    for (long key : keys) {
+      if (key != FREE && !action.test(key)) return false;
+    }
+
+    return true;
+  }
+}
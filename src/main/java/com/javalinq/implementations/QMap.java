@@ -2,155 +2,378 @@ package com.javalinq.implementations;
 
 import com.javalinq.exceptions.IterableMapException;
 import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.SizedIterable;
 import com.javalinq.tools.KeyValuePair;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Created by sircodesalot on 15/3/16.
+ *
+ * Open addressing hash map. Keys and values live in parallel arrays whose length is
+ * always a power of two, collisions are resolved by linear probing, and removal shifts
+ * the following run back so no tombstones are left behind. Null keys are not supported.
  */
-public class QMap<T, U> implements QIterable<KeyValuePair<T, U>> {
-  private final int DEFAULT_SIZE = 11;
+public class QMap<T, U> implements SizedIterable<KeyValuePair<T, U>> {
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
 
-  class Link {
-    private final T key;
-    private final KeyValuePair<T, U> pair;
-    private final Link next;
+  private Object[] keys;
+  private Object[] values;
+  private int mask;
+  private int threshold;
+  private int count = 0;
 
-    public Link(T key, U value, Link next) {
-      this.key = key;
-      this.pair = new KeyValuePair<>(key, value);
-      this.next = next;
-    }
+  public QMap() {
+    this(DEFAULT_CAPACITY / 2);
+  }
 
-    public Link(KeyValuePair<T, U> pair, Link next) {
-      this.key = pair.key();
-      this.pair = pair;
-      this.next = next;
-    }
+  public QMap(int expectedSize) {
+    allocate(capacityFor(expectedSize));
+  }
 
-    public T key() { return this.key; }
-    public U value()  { return this.pair.value(); }
-    public KeyValuePair<T, U> pair() { return this.pair; }
+  // Keep the table at most half full, linear probing degrades quickly past that.
+  private static int capacityFor(int expectedSize) {
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity < MAXIMUM_CAPACITY && capacity / 2 < expectedSize) capacity <<= 1;
+    return capacity;
   }
 
-  private int size = DEFAULT_SIZE;
-  private int threshold = (DEFAULT_SIZE * 3) / 4;
-  private int count = 0;
-  private int[] lengths = new int[size];
-  private Object[] items = new Object[size];
+  private void allocate(int capacity) {
+    this.keys = new Object[capacity];
+    this.values = new Object[capacity];
+    this.mask = capacity - 1;
+    this.threshold = capacity / 2;
+  }
 
-  private int hash(T key) { return Math.abs(key.hashCode()) % size; }
+  // Mix the high bits in so keys whose hashCodes only differ above the mask don't collide.
+  private static int hash(Object key) {
+    int hash = key.hashCode() * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
 
-  private Link find(T key) {
-    int hash = hash(key);
-    for (Link current = (Link)items[hash]; current != null; current = current.next) {
-      if (current.key.equals(key)) {
-        return current;
-      }
+  /**
+   * Finds the slot holding the key, or if the key is absent, the bitwise
+   * complement of the free slot it would be inserted into.
+   */
+  private int probe(Object key) {
+    if (key == null) {
+      throw new IterableMapException("QMap does not support null keys.");
     }
 
-    return null;
+    for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+      Object current = keys[index];
+      if (current == null) return ~index;
+      if (current == key || current.equals(key)) return index;
+    }
+  }
+
+  private void insertAt(int index, T key, U value) {
+    keys[index] = key;
+    values[index] = value;
+
+    if (++count > threshold) {
+      resize();
+    }
   }
 
   public boolean containsKey(T key) {
-    return find(key) != null;
+    return probe(key) >= 0;
   }
 
   @Override
-  public long count() { return this.count(); }
+  public long count() { return this.count; }
 
+  @Override
+  public int size() { return this.count; }
+
+  /**
+   * Adds the key if it isn't already present.
+   * @return false if the key already existed (the value is left unchanged).
+   */
   public boolean add(T key, U value) {
-    if (!containsKey(key)) {
-      int hash = hash(key);
-      int length = lengths[hash];
-      if (length >= threshold) {
-        expand();
-      }
+    int slot = probe(key);
+    if (slot >= 0) return false;
 
-      items[hash] = new Link(key, value, (Link)items[hash]);
-      lengths[hash]++;
-      count++;
-      return true;
-    } else {
-      return false;
-    }
+    insertAt(~slot, key, value);
+    return true;
   }
 
-  public void remove(T key) {
-    int hash = hash(key);
-    Link current, previous = null;
-    for (current = (Link)items[hash]; current != null; current = current.next) {
-      if (current.key.equals(key)) {
-        break;
-      }
-      previous = current;
+  /**
+   * Associates the value with the key, replacing any existing value.
+   * @return the previous value, or null if there wasn't one.
+   */
+  public U put(T key, U value) {
+    int slot = probe(key);
+    if (slot >= 0) {
+      U previous = (U) values[slot];
+      values[slot] = value;
+      return previous;
     }
 
-    // If the head was the item we needed to delete.
-    if (previous == null) {
-      items[hash] = current.next;
-    } else {
-      previous = current.next;
+    insertAt(~slot, key, value);
+    return null;
+  }
+
+  public U computeIfAbsent(T key, Function<? super T, ? extends U> factory) {
+    int slot = probe(key);
+    if (slot >= 0) return (U) values[slot];
+
+    U value = factory.apply(key);
+    insertAt(~slot, key, value);
+    return value;
+  }
+
+  /**
+   * Stores the value if the key is absent, otherwise replaces the existing value
+   * with remapping(existing, value).
+   * @return the value now associated with the key.
+   */
+  public U merge(T key, U value, BiFunction<? super U, ? super U, ? extends U> remapping) {
+    int slot = probe(key);
+    if (slot >= 0) {
+      U merged = remapping.apply((U) values[slot], value);
+      values[slot] = merged;
+      return merged;
     }
+
+    insertAt(~slot, key, value);
+    return value;
+  }
+
+  public boolean remove(T key) {
+    int slot = probe(key);
+    if (slot < 0) return false;
+
+    deleteAt(slot);
+    return true;
   }
 
   public U get(T key) {
-    Link item = find(key);
-    if (item == null) {
+    int slot = probe(key);
+    if (slot < 0) {
       throw new IterableMapException("No such item.");
     }
 
-    return item.pair.value();
+    return (U) values[slot];
+  }
+
+  public U getOrDefault(T key, U defaultValue) {
+    int slot = probe(key);
+    return (slot >= 0) ? (U) values[slot] : defaultValue;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, null);
+    Arrays.fill(values, null);
+    count = 0;
+  }
+
+  // Backward shift deletion: pull later members of the probe run into the hole
+  // whenever their home slot is at or before it.
+  private void deleteAt(int index) {
+    int hole = index;
+    keys[hole] = null;
+    values[hole] = null;
+
+    for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        keys[next] = null;
+        values[next] = null;
+        hole = next;
+      }
+    }
+
+    count--;
+  }
+
+  private void resize() {
+    if (keys.length == MAXIMUM_CAPACITY) {
+      throw new IterableMapException("QMap cannot grow past %s slots.", MAXIMUM_CAPACITY);
+    }
+
+    Object[] oldKeys = this.keys;
+    Object[] oldValues = this.values;
+    allocate(oldKeys.length * 2);
+
+    // Every key is known to be distinct, so only look for the first free slot.
+    for (int slot = 0; slot < oldKeys.length; slot++) {
+      Object key = oldKeys[slot];
+      if (key == null) continue;
+
+      int index = hash(key) & mask;
+      while (keys[index] != null) index = (index + 1) & mask;
+
+      keys[index] = key;
+      values[index] = oldValues[slot];
+    }
   }
 
-  private void expand() {
-    int newSize = size * 19;
-    int newThreshold = threshold * 19;
-    Object[] newTable = new Object[newSize];
-    int[] newLengths = new int[newSize];
+  /**
+   * Visits every entry without allocating a KeyValuePair for each one.
+   */
+  public void forEachEntry(BiConsumer<? super T, ? super U> action) {
+    Object[] keys = this.keys;
+    Object[] values = this.values;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != null) action.accept((T) keys[slot], (U) values[slot]);
+    }
+  }
 
-    for (KeyValuePair<T, U> item : this) {
-      int hash = hash(item.key());
-      newTable[hash] = new Link(item, (Link)newTable[hash]);
-      newLengths[hash]++;
+  @Override
+  public boolean forEachWhile(Predicate<KeyValuePair<T, U>> action) {
+    Object[] keys = this.keys;
+    Object[] values = this.values;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != null && !action.test(new KeyValuePair<>((T) keys[slot], (U) values[slot]))) return false;
     }
 
-    this.size = newSize;
-    this.threshold = newThreshold;
-    this.items = newTable;
-    this.lengths = newLengths;
+    return true;
+  }
+
+  public QIterable<T> keys() {
+    return new QIterable<T>() {
+      @Override
+      public Iterator<T> iterator() {
+        return entries((key, value) -> (T) key);
+      }
+
+      @Override
+      public Spliterator<T> spliterator() {
+        return new SlotSpliterator<>((key, value) -> (T) key, 0, keys.length, count, Spliterator.SIZED | Spliterator.DISTINCT);
+      }
+    };
+  }
+
+  public QIterable<U> values() {
+    return new QIterable<U>() {
+      @Override
+      public Iterator<U> iterator() {
+        return entries((key, value) -> (U) value);
+      }
+
+      @Override
+      public Spliterator<U> spliterator() {
+        return new SlotSpliterator<>((key, value) -> (U) value, 0, keys.length, count, Spliterator.SIZED);
+      }
+    };
   }
 
   @Override
   public Iterator<KeyValuePair<T, U>> iterator() {
-    return new Iterator<KeyValuePair<T, U>>() {
-      private int hash = 0;
-      private Link current;
-      private int size = QMap.this.size;
-      private Object[] items = QMap.this.items;
+    return entries((key, value) -> new KeyValuePair<>((T) key, (U) value));
+  }
+
+  @Override
+  public Spliterator<KeyValuePair<T, U>> spliterator() {
+    return new SlotSpliterator<>((key, value) -> new KeyValuePair<>((T) key, (U) value), 0, keys.length, count,
+      Spliterator.SIZED | Spliterator.DISTINCT | Spliterator.NONNULL);
+  }
+
+  private <R> Iterator<R> entries(BiFunction<Object, Object, R> projection) {
+    return new Iterator<R>() {
+      private final Object[] keys = QMap.this.keys;
+      private final Object[] values = QMap.this.values;
+      private int slot = advance(0);
+
+      private int advance(int from) {
+        while (from < keys.length && keys[from] == null) from++;
+        return from;
+      }
 
       @Override
       public boolean hasNext() {
-        while (current == null) {
-          current = (Link)items[hash++];
-          if (hash >= size) {
-            return false;
-          }
-        }
-
-        return true;
+        return slot < keys.length;
       }
 
       @Override
-      public KeyValuePair<T, U> next() {
-        KeyValuePair<T, U> pair = current.pair;
-        current = current.next;
+      public R next() {
+        if (slot >= keys.length) throw new NoSuchElementException();
 
-        return pair;
+        R entry = projection.apply(keys[slot], values[slot]);
+        slot = advance(slot + 1);
+        return entry;
       }
     };
   }
 
+  /**
+   * Splits the slot array in half. Only the top level knows its exact size, the halves
+   * estimate theirs from the share of the slots they cover.
+   */
+  private class SlotSpliterator<R> implements Spliterator<R> {
+    private final Object[] keys = QMap.this.keys;
+    private final Object[] values = QMap.this.values;
+    private final BiFunction<Object, Object, R> projection;
+    private int characteristics;
+    private int from;
+    private final int to;
+    private long estimate;
+
+    public SlotSpliterator(BiFunction<Object, Object, R> projection, int from, int to, long estimate, int characteristics) {
+      this.projection = projection;
+      this.from = from;
+      this.to = to;
+      this.estimate = estimate;
+      this.characteristics = characteristics;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super R> action) {
+      while (from < to) {
+        int slot = from++;
+        if (keys[slot] != null) {
+          if (estimate > 0) estimate--;
+          action.accept(projection.apply(keys[slot], values[slot]));
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super R> action) {
+      int slot = from;
+      from = to;
+      estimate = 0;
+
+      for (; slot < to; slot++) {
+        if (keys[slot] != null) action.accept(projection.apply(keys[slot], values[slot]));
+      }
+    }
+
+    @Override
+    public Spliterator<R> trySplit() {
+      int middle = (from + to) >>> 1;
+      if (middle <= from) return null;
 
+      estimate >>>= 1;
+      characteristics &= ~Spliterator.SIZED;
+      SlotSpliterator<R> prefix = new SlotSpliterator<>(projection, from, middle, estimate, characteristics);
+      from = middle;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+      return characteristics;
+    }
+  }
 }
@@ -0,0 +1,158 @@
+package com.javalinq.implementations;
+
+import com.javalinq.interfaces.ChangeListener;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.ObservableIterable;
+
+import java.util.Iterator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * A QList that tells its listeners about every add, remove, set and clear, so live views
+ * over it stay current. Writers take the write lock and reads of a single value take the
+ * read lock, so the list can be shared between a writer and dashboards reading it.
+ * Iterating isn't locked: do it inside read(...) if the list may change meanwhile. The
+ * read lock can't be upgraded, so don't change the list from inside a query over it.
+ */
+public class QObservableList<T> implements IndexedIterable<T>, ObservableIterable<T> {
+  private final QList<T> items = new QList<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private QList<ChangeListener<T>> listeners = new QList<>();
+
+  public QObservableList() {
+  }
+
+  public QObservableList(Iterable<T> items) {
+    this.add(items);
+  }
+
+  public void add(T item) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      items.add(item);
+      for (ChangeListener<T> listener : listeners) listener.added(item);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public void add(Iterable<T> items) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      for (T item : items) this.add(item);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public void remove(int index) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      T item = items.get(index);
+      items.remove(index);
+      for (ChangeListener<T> listener : listeners) listener.removed(item);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public void remove(T item) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      int index = items.indexOf(item);
+      if (index >= 0) this.remove(index);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public T set(int index, T item) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      T previous = items.set(index, item);
+      for (ChangeListener<T> listener : listeners) {
+        listener.removed(previous);
+        listener.added(item);
+      }
+
+      return previous;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public void clear() {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      items.clear();
+      for (ChangeListener<T> listener : listeners) listener.cleared();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  // Listeners are replaced rather than edited, so one can unsubscribe while being notified.
+  @Override
+  public void subscribe(ChangeListener<T> listener) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      QList<ChangeListener<T>> listeners = new QList<>(this.listeners);
+      listeners.add(listener);
+      this.listeners = listeners;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void unsubscribe(ChangeListener<T> listener) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      QList<ChangeListener<T>> listeners = new QList<>(this.listeners);
+      listeners.remove(listener);
+      this.listeners = listeners;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public ReadWriteLock lock() {
+    return lock;
+  }
+
+  @Override
+  public T get(int index) {
+    return this.read(() -> items.get(index));
+  }
+
+  @Override
+  public int size() {
+    return this.read(items::size);
+  }
+
+  public int indexOf(T item) {
+    return this.read(() -> items.indexOf(item));
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    return this.read(() -> items.forEachWhile(action));
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return items.iterator();
+  }
+}
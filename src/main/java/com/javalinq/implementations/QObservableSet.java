@@ -0,0 +1,128 @@
+package com.javalinq.implementations;
+
+import com.javalinq.interfaces.ChangeListener;
+import com.javalinq.interfaces.ObservableIterable;
+import com.javalinq.interfaces.SizedIterable;
+
+import java.util.Iterator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * A QSet that tells its listeners about every item it actually adds or removes, so live
+ * views over it stay current. Locking works as in QObservableList.
+ */
+public class QObservableSet<T> implements SizedIterable<T>, ObservableIterable<T> {
+  private final QSet<T> items = new QSet<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private QList<ChangeListener<T>> listeners = new QList<>();
+
+  public QObservableSet() {
+  }
+
+  public QObservableSet(Iterable<T> items) {
+    this.add(items);
+  }
+
+  /**
+   * @return false if the item was already present (listeners aren't told).
+   */
+  public boolean add(T item) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      if (!items.add(item)) return false;
+
+      for (ChangeListener<T> listener : listeners) listener.added(item);
+      return true;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public void add(Iterable<T> items) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      for (T item : items) this.add(item);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public void remove(T item) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      if (!items.contains(item)) return;
+
+      items.remove(item);
+      for (ChangeListener<T> listener : listeners) listener.removed(item);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public void clear() {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      items.clear();
+      for (ChangeListener<T> listener : listeners) listener.cleared();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void subscribe(ChangeListener<T> listener) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      QList<ChangeListener<T>> listeners = new QList<>(this.listeners);
+      listeners.add(listener);
+      this.listeners = listeners;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void unsubscribe(ChangeListener<T> listener) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      QList<ChangeListener<T>> listeners = new QList<>(this.listeners);
+      listeners.remove(listener);
+      this.listeners = listeners;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public ReadWriteLock lock() {
+    return lock;
+  }
+
+  public boolean contains(T item) {
+    return this.read(() -> items.contains(item));
+  }
+
+  @Override
+  public int size() {
+    return this.read(items::size);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    return this.read(() -> items.forEachWhile(action));
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return items.iterator();
+  }
+}
@@ -0,0 +1,279 @@
+package com.javalinq.implementations;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * A file of fixed width binary records, memory mapped and queried in place:
+ *
+ *   QRecordFile ticks = new QRecordFile(path, 24);
+ *   long big = ticks.where(tick -> tick.getDouble(8) > 100).count();
+ *
+ * The file is mapped in segments of whole records (each under 2GB), so files of any size
+ * work. Each Record handed out is a small view of its own (nothing is copied out of the
+ * file), so records can be kept and buffered by reverse, memoize or parallel. Records are
+ * equal when their bytes are, so distinct, toSet and groupBy compare record contents. Scans that want to avoid even that allocation can use scanWhile,
+ * which moves a single Record along the file instead. get(int) and range(from, to) are
+ * constant time.
+ *
+ * Trailing bytes that don't make up a whole record are ignored.
+ */
+public class QRecordFile implements IndexedIterable<QRecordFile.Record> {
+  private static final int MAXIMUM_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+  private final int recordSize;
+  private final int recordsPerSegment;
+  private final int size;
+  private final ByteBuffer[] segments;
+
+  public QRecordFile(Path path, int recordSize) throws IOException {
+    this(path, recordSize, ByteOrder.BIG_ENDIAN);
+  }
+
+  public QRecordFile(Path path, int recordSize, ByteOrder order) throws IOException {
+    this(path, recordSize, order, MAXIMUM_SEGMENT_SIZE);
+  }
+
+  /**
+   * @param segmentSize the most bytes to map at once, rounded down to whole records.
+   */
+  public QRecordFile(Path path, int recordSize, ByteOrder order, int segmentSize) throws IOException {
+    if (recordSize <= 0 || recordSize > segmentSize) {
+      throw new QueryException("Record size %s must be between 1 and the segment size %s", recordSize, segmentSize);
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long records = channel.size() / recordSize;
+      if (records > Integer.MAX_VALUE) {
+        throw new QueryException("%s holds %s records, more than can be indexed", path, records);
+      }
+
+      this.recordSize = recordSize;
+      this.recordsPerSegment = segmentSize / recordSize;
+      this.size = (int) records;
+      this.segments = new ByteBuffer[(int) ((records + recordsPerSegment - 1) / recordsPerSegment)];
+
+      // Mappings stay valid after the channel is closed.
+      for (int segment = 0; segment < segments.length; segment++) {
+        long first = (long) segment * recordsPerSegment;
+        long length = Math.min(recordsPerSegment, records - first) * recordSize;
+        segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, first * recordSize, length).order(order);
+      }
+    }
+  }
+
+  public int recordSize() {
+    return recordSize;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Record get(int index) {
+    if (index < 0 || index >= size) {
+      throw new QueryException("Index %s is out of range", index);
+    }
+
+    return record(index);
+  }
+
+  @Override
+  public Iterator<Record> iterator() {
+    return new RecordIterator(0, size);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<Record> action) {
+    return forEachWhile(0, size, action);
+  }
+
+  private boolean forEachWhile(int from, int to, Predicate<Record> action) {
+    for (int index = from; index < to; index++) {
+      if (!action.test(record(index))) return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Like forEachWhile, but moves a single Record along the file rather than creating one
+   * per record. The Record is only valid during the call to 'action': use copy() (or read
+   * its fields out) before keeping it.
+   */
+  public boolean scanWhile(Predicate<Record> action) {
+    return scanWhile(0, size, action);
+  }
+
+  public boolean scanWhile(int from, int to, Predicate<Record> action) {
+    if (from < 0 || to > size || from > to) {
+      throw new QueryException("Range [%s, %s) is out of range", from, to);
+    }
+
+    Record record = new Record();
+    for (int index = from; index < to; index++) {
+      record.moveTo(index);
+      if (!action.test(record)) return false;
+    }
+
+    return true;
+  }
+
+  private Record record(int index) {
+    Record record = new Record();
+    record.moveTo(index);
+    return record;
+  }
+
+  @Override
+  public IndexedIterable<Record> range(int from, int to) {
+    if (from < 0 || to > size || from > to) {
+      throw new QueryException("Range [%s, %s) is out of range", from, to);
+    }
+
+    return new IndexedIterable<Record>() {
+      @Override
+      public Iterator<Record> iterator() {
+        return new RecordIterator(from, to);
+      }
+
+      @Override
+      public boolean forEachWhile(Predicate<Record> action) {
+        return QRecordFile.this.forEachWhile(from, to, action);
+      }
+
+      @Override
+      public Record get(int index) {
+        if (index < 0 || index >= to - from) {
+          throw new QueryException("Index %s is out of range", index);
+        }
+
+        return QRecordFile.this.get(from + index);
+      }
+
+      @Override
+      public int size() {
+        return to - from;
+      }
+    };
+  }
+
+  /**
+   * The records of each mapped segment, for splitting work along mapping boundaries.
+   */
+  public QIterable<IndexedIterable<Record>> segments() {
+    QList<IndexedIterable<Record>> ranges = new QList<>();
+    for (int segment = 0; segment < segments.length; segment++) {
+      int from = segment * recordsPerSegment;
+      ranges.add(range(from, Math.min(size, from + recordsPerSegment)));
+    }
+
+    return ranges;
+  }
+
+  private class RecordIterator implements Iterator<Record> {
+    private int index;
+    private final int to;
+
+    public RecordIterator(int from, int to) {
+      this.index = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < to;
+    }
+
+    @Override
+    public Record next() {
+      if (index >= to) throw new NoSuchElementException();
+
+      return record(index++);
+    }
+  }
+
+  /**
+   * A view of one record. Field accessors take the byte offset of the field within the record.
+   */
+  public class Record {
+    private ByteBuffer segment;
+    private int offset;
+    private int index;
+
+    private Record() {
+    }
+
+    private void moveTo(int index) {
+      this.index = index;
+      this.segment = segments[index / recordsPerSegment];
+      this.offset = (index % recordsPerSegment) * recordSize;
+    }
+
+    public int index() { return index; }
+
+    public byte getByte(int field) { return segment.get(offset + field); }
+    public short getShort(int field) { return segment.getShort(offset + field); }
+    public int getInt(int field) { return segment.getInt(offset + field); }
+    public long getLong(int field) { return segment.getLong(offset + field); }
+    public float getFloat(int field) { return segment.getFloat(offset + field); }
+    public double getDouble(int field) { return segment.getDouble(offset + field); }
+
+    public void getBytes(int field, byte[] destination) {
+      for (int index = 0; index < destination.length; index++) {
+        destination[index] = segment.get(offset + field + index);
+      }
+    }
+
+    private int size() {
+      return recordSize;
+    }
+
+    /**
+     * Records are equal when they hold the same bytes, wherever they are in whichever file.
+     * A Record moved by scanWhile changes its hash as it moves, so copy() it before using it
+     * as a key.
+     */
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) return true;
+      if (!(other instanceof Record)) return false;
+
+      Record record = (Record) other;
+      if (record.size() != recordSize) return false;
+
+      for (int field = 0; field < recordSize; field++) {
+        if (getByte(field) != record.getByte(field)) return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = 1;
+      for (int field = 0; field < recordSize; field++) hash = 31 * hash + getByte(field);
+      return hash;
+    }
+
+    /**
+     * A Record for the same position that won't move when this one does (see scanWhile).
+     */
+    public Record copy() {
+      return QRecordFile.this.get(index);
+    }
+  }
+}
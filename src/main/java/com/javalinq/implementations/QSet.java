@@ -1,15 +1,16 @@
 package com.javalinq.implementations;
 
-import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.SizedIterable;
 
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.Spliterator;
 
 /**
  * Created by sircodesalot on 14-5-30.
  */
-public class QSet<T> implements QIterable<T> {
+public class QSet<T> implements SizedIterable<T> {
   public Set<T> set = new HashSet<>();
 
   public QSet() {
@@ -41,6 +42,7 @@ public class QSet<T> implements QIterable<T> {
     return this.set.contains(item);
   }
 
+  @Override
   public int size() {
     return set.size();
   }
@@ -54,6 +56,11 @@ public class QSet<T> implements QIterable<T> {
     return this.set.iterator();
   }
 
+  @Override
+  public Spliterator<T> spliterator() {
+    return this.set.spliterator();
+  }
+
   @Override
   public long count() {
     return set.size();
@@ -0,0 +1,367 @@
+package com.javalinq.implementations;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.iterators.RangeIterable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A list kept sorted by a key, so range queries are binary searches rather than scans:
+ *
+ *   QSortedList<Tick, Long> ticks = new QSortedList<>(tick -> tick.timestamp);
+ *   QSortedList<Tick, Long>.SortedRange lastHour = ticks.between(now - HOUR, now);
+ *
+ * Items and their keys live in parallel arrays. Adding an item whose key is at least the
+ * last key (time ordered data, say) is a plain append. Anything else is buffered, and the
+ * buffer is sorted and merged in one pass the next time the list is read, so a batch of
+ * unordered adds costs one sort rather than a shift per item. Items with equal keys keep
+ * the order they were added in.
+ *
+ * first(), last(), minKey() and maxKey() are constant time: use those for the smallest or
+ * largest item by key. min(f) and max(f) only skip their scan when 'f' is the very Function
+ * instance the list was built with; an equivalent lambda is scanned like any other. between,
+ * headSet, tailSet and range return SortedRange views that keep random access and support the
+ * same queries. Like subList, a view must not be used after the list changes. Null keys
+ * aren't supported.
+ *
+ * As with QList, the list isn't safe to change while other threads read it. Reads from
+ * several threads at once are safe, including the first read after out of order adds: the
+ * merge of the buffered items runs once, under a lock.
+ */
+public class QSortedList<T, K extends Comparable> implements IndexedIterable<T> {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final Function<T, K> onKey;
+  private final QList<T> pending = new QList<>();
+  private volatile boolean hasPending = false;
+  private Object[] items = new Object[DEFAULT_CAPACITY];
+  private Object[] keys = new Object[DEFAULT_CAPACITY];
+  private int size;
+
+  public QSortedList(Function<T, K> onKey) {
+    this.onKey = onKey;
+  }
+
+  public QSortedList(Function<T, K> onKey, Iterable<T> items) {
+    this(onKey);
+    this.add(items);
+  }
+
+  private static int compare(Object lhs, Object rhs) {
+    return ((Comparable) lhs).compareTo(rhs);
+  }
+
+  private K keyOf(T item) {
+    K key = onKey.apply(item);
+    if (key == null) {
+      throw new QueryException("QSortedList does not support null keys.");
+    }
+
+    return key;
+  }
+
+  public void add(T item) {
+    if (pending.size() > 0) {
+      pending.add(item);
+      return;
+    }
+
+    K key = keyOf(item);
+    if (size > 0 && compare(key, keys[size - 1]) < 0) {
+      pending.add(item);
+      hasPending = true;
+      return;
+    }
+
+    ensureCapacity(size + 1);
+    items[size] = item;
+    keys[size] = key;
+    size++;
+  }
+
+  public void add(Iterable<T> items) {
+    for (T item : items) this.add(item);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= items.length) return;
+
+    int length = Math.max(capacity, items.length + (items.length >> 1));
+    items = Arrays.copyOf(items, length);
+    keys = Arrays.copyOf(keys, length);
+  }
+
+  // Readers call this first. Once the merge is done, the volatile flag publishes it to
+  // readers on other threads without taking the lock.
+  private void flush() {
+    if (!hasPending) return;
+
+    synchronized (this) {
+      if (hasPending) merge();
+      hasPending = false;
+    }
+  }
+
+  // Sorts the buffered items and merges them in from the back, so nothing is moved twice.
+  private void merge() {
+    int count = pending.size();
+    if (count == 0) return;
+
+    Object[][] batch = new Object[count][];
+    for (int index = 0; index < count; index++) {
+      T item = pending.get(index);
+      batch[index] = new Object[] { keyOf(item), item };
+    }
+
+    Arrays.sort(batch, (lhs, rhs) -> compare(lhs[0], rhs[0]));
+    pending.clear();
+
+    ensureCapacity(size + count);
+    int existing = size - 1;
+    int added = count - 1;
+    for (int write = size + count - 1; added >= 0; write--) {
+      // On equal keys the existing item stays first.
+      if (existing >= 0 && compare(keys[existing], batch[added][0]) > 0) {
+        keys[write] = keys[existing];
+        items[write] = items[existing--];
+      } else {
+        keys[write] = batch[added][0];
+        items[write] = batch[added--][1];
+      }
+    }
+
+    size += count;
+  }
+
+  /**
+   * Removes the first item equal to this one (found by binary search on its key).
+   */
+  public void remove(T item) {
+    flush();
+
+    K key = keyOf(item);
+    for (int index = lowerBound(key, 0, size), end = upperBound(key, 0, size); index < end; index++) {
+      if (Objects.equals(items[index], item)) {
+        System.arraycopy(items, index + 1, items, index, size - index - 1);
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        size--;
+        items[size] = null;
+        keys[size] = null;
+        return;
+      }
+    }
+  }
+
+  public void clear() {
+    pending.clear();
+    hasPending = false;
+    Arrays.fill(items, 0, size, null);
+    Arrays.fill(keys, 0, size, null);
+    size = 0;
+  }
+
+  // The first position in [from, to) whose key is at least 'key'.
+  private int lowerBound(Object key, int from, int to) {
+    while (from < to) {
+      int middle = (from + to) >>> 1;
+      if (compare(keys[middle], key) < 0) from = middle + 1;
+      else to = middle;
+    }
+
+    return from;
+  }
+
+  // The first position in [from, to) whose key is greater than 'key'.
+  private int upperBound(Object key, int from, int to) {
+    while (from < to) {
+      int middle = (from + to) >>> 1;
+      if (compare(keys[middle], key) <= 0) from = middle + 1;
+      else to = middle;
+    }
+
+    return from;
+  }
+
+  /**
+   * A view of the whole list.
+   */
+  public SortedRange all() {
+    flush();
+    return new SortedRange(0, size);
+  }
+
+  public SortedRange between(K from, K to) { return all().between(from, to); }
+  public SortedRange headSet(K to) { return all().headSet(to); }
+  public SortedRange tailSet(K from) { return all().tailSet(from); }
+  public T floor(K key) { return all().floor(key); }
+  public T ceiling(K key) { return all().ceiling(key); }
+  public K minKey() { return all().minKey(); }
+  public K maxKey() { return all().maxKey(); }
+
+  @Override
+  public SortedRange range(int from, int to) { return all().range(from, to); }
+
+  @Override
+  public T get(int index) {
+    flush();
+    if (index < 0 || index >= size) {
+      throw new QueryException("Index %s is out of range", index);
+    }
+
+    return (T) items[index];
+  }
+
+  @Override
+  public int size() {
+    flush();
+    return size;
+  }
+
+  @Override
+  public T first() { return all().first(); }
+
+  @Override
+  public T firstOrNull() { return all().firstOrNull(); }
+
+  @Override
+  public <U extends Comparable> T min(Function<T, U> onProperty) { return all().min(onProperty); }
+
+  @Override
+  public <U extends Comparable> T max(Function<T, U> onProperty) { return all().max(onProperty); }
+
+  @Override
+  public Iterator<T> iterator() { return all().iterator(); }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) { return all().forEachWhile(action); }
+
+  /**
+   * The items at positions [from, to) of the sorted list, which are also the items whose
+   * keys fall in some range. Key queries on a view only look inside it.
+   */
+  public class SortedRange implements IndexedIterable<T> {
+    private final int from;
+    private final int to;
+
+    private SortedRange(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * The items with from <= key < to.
+     */
+    public SortedRange between(K from, K to) {
+      int start = lowerBound(from, this.from, this.to);
+      return new SortedRange(start, Math.max(start, lowerBound(to, this.from, this.to)));
+    }
+
+    /**
+     * The items with keys strictly less than 'to'.
+     */
+    public SortedRange headSet(K to) {
+      return new SortedRange(this.from, lowerBound(to, this.from, this.to));
+    }
+
+    /**
+     * The items with keys greater than or equal to 'from'.
+     */
+    public SortedRange tailSet(K from) {
+      return new SortedRange(lowerBound(from, this.from, this.to), this.to);
+    }
+
+    /**
+     * The last item with a key less than or equal to 'key', or null if there isn't one.
+     */
+    public T floor(K key) {
+      int index = upperBound(key, from, to) - 1;
+      return (index >= from) ? (T) items[index] : null;
+    }
+
+    /**
+     * The first item with a key greater than or equal to 'key', or null if there isn't one.
+     */
+    public T ceiling(K key) {
+      int index = lowerBound(key, from, to);
+      return (index < to) ? (T) items[index] : null;
+    }
+
+    public K minKey() {
+      if (from == to) throw new QueryException("Sequence contains no items");
+      return (K) keys[from];
+    }
+
+    public K maxKey() {
+      if (from == to) throw new QueryException("Sequence contains no items");
+      return (K) keys[to - 1];
+    }
+
+    @Override
+    public SortedRange range(int from, int to) {
+      if (from < 0 || to > size() || from > to) {
+        throw new QueryException("Range [%s, %s) is out of range", from, to);
+      }
+
+      return new SortedRange(this.from + from, this.from + to);
+    }
+
+    @Override
+    public T get(int index) {
+      if (index < 0 || index >= to - from) {
+        throw new QueryException("Index %s is out of range", index);
+      }
+
+      return (T) items[from + index];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public T first() {
+      if (from == to) throw new QueryException("Sequence contains no items");
+      return (T) items[from];
+    }
+
+    @Override
+    public T firstOrNull() {
+      return (from == to) ? null : (T) items[from];
+    }
+
+    // Asked for the extreme by the list's own key, find it without a scan. As with the
+    // scanning version, ties go to the first item.
+    @Override
+    public <U extends Comparable> T min(Function<T, U> onProperty) {
+      if (onProperty != onKey) return IndexedIterable.super.min(onProperty);
+      return firstOrNull();
+    }
+
+    @Override
+    public <U extends Comparable> T max(Function<T, U> onProperty) {
+      if (onProperty != onKey) return IndexedIterable.super.max(onProperty);
+      return (from == to) ? null : (T) items[lowerBound(keys[to - 1], from, to)];
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return new RangeIterable<>(this::get, 0, size()).iterator();
+    }
+
+    @Override
+    public boolean forEachWhile(Predicate<T> action) {
+      Object[] items = QSortedList.this.items;
+      for (int index = from; index < to; index++) {
+        if (!action.test((T) items[index])) return false;
+      }
+
+      return true;
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.javalinq.interfaces;
+
+/**
+ * Folds the items of a group into a mutable accumulator. merge joins the partial
+ * accumulators of two segments when a query runs in parallel, and finish turns the
+ * accumulator into the value reported for the group. See tools.Aggregators for the
+ * common ones.
+ */
+public interface Aggregator<T, A, R> {
+  A create();
+  void accumulate(A accumulator, T item);
+  A merge(A lhs, A rhs);
+  R finish(A accumulator);
+}
@@ -0,0 +1,11 @@
+package com.javalinq.interfaces;
+
+/**
+ * Told about each change to an ObservableIterable, while the change still holds the
+ * collection's write lock.
+ */
+public interface ChangeListener<T> {
+  void added(T item);
+  void removed(T item);
+  void cleared();
+}
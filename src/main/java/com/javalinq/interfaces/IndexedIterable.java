@@ -0,0 +1,55 @@
+package com.javalinq.interfaces;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.iterators.IndexedSpliterator;
+import com.javalinq.iterators.RangeIterable;
+
+import java.util.Spliterator;
+import java.util.function.Predicate;
+
+/**
+ * A QIterable with constant time access by position. Operators check for this
+ * (and SizedIterable) to skip walking the iterator when they don't need to.
+ */
+public interface IndexedIterable<T> extends SizedIterable<T> {
+  @Override
+  T get(int index);
+
+  @Override
+  default public T last() {
+    int size = this.size();
+    if (size == 0)
+      throw new QueryException("Sequence contains no items");
+
+    return this.get(size - 1);
+  }
+
+  @Override
+  default public T lastOrNull() {
+    int size = this.size();
+    return (size == 0) ? null : this.get(size - 1);
+  }
+
+  /**
+   * The items at positions [from, to). Parallel queries split indexed sources with this,
+   * so sources that can walk a range more cheaply than get(int) should override it.
+   */
+  default public IndexedIterable<T> range(int from, int to) {
+    return new RangeIterable<>(this::get, from, to);
+  }
+
+  @Override
+  default public boolean forEachWhile(Predicate<T> action) {
+    for (int index = 0, size = this.size(); index < size; index++) {
+      if (!action.test(this.get(index))) return false;
+    }
+
+    return true;
+  }
+
+  // Splits by index range, so parallel streams divide the work evenly.
+  @Override
+  default public Spliterator<T> spliterator() {
+    return new IndexedSpliterator<>(this::get, 0, this.size(), 0);
+  }
+}
@@ -0,0 +1,41 @@
+package com.javalinq.interfaces;
+
+import com.javalinq.tools.LiveView;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A collection that reports its changes to listeners, so queries over it can be kept up
+ * to date (see liveView) instead of being run again. Changes are made under the write
+ * half of lock(), and listeners run before it's released.
+ */
+public interface ObservableIterable<T> extends QIterable<T> {
+  void subscribe(ChangeListener<T> listener);
+  void unsubscribe(ChangeListener<T> listener);
+  ReadWriteLock lock();
+
+  /**
+   * Runs the reader with changes held off, so everything it reads (the collection and any
+   * live values over it) is from the same moment.
+   */
+  default public <R> R read(Supplier<R> reader) {
+    Lock readLock = lock().readLock();
+    readLock.lock();
+    try {
+      return reader.get();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  default public LiveView<T> liveView() {
+    return LiveView.of(this);
+  }
+
+  default public LiveView<T> liveView(Predicate<T> predicate) {
+    return LiveView.of(this).where(predicate);
+  }
+}
@@ -0,0 +1,185 @@
+package com.javalinq.interfaces;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.implementations.QDoubleList;
+import com.javalinq.implementations.QLongSet;
+import com.javalinq.iterators.PushIterable;
+import com.javalinq.tools.CompensatedSum;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * A query over doubles that never boxes. Everything is built on forEachWhile: operators wrap
+ * the action they're given and push values straight through, so where(...).map(...).sum()
+ * is one loop over the source with no Double in sight. Operators are deferred just like
+ * QIterable's, and can be read any number of times.
+ *
+ * Use mapToObj or boxed to get back to a QIterable.
+ */
+public interface QDoubleIterable {
+  /**
+   * Pushes each value to the action until it returns false.
+   * @return true if every value was visited.
+   */
+  boolean forEachWhile(DoublePredicate action);
+
+  default public void forEach(DoubleConsumer action) {
+    forEachWhile(value -> {
+      action.accept(value);
+      return true;
+    });
+  }
+
+  default public QDoubleIterable where(DoublePredicate predicate) {
+    return action -> this.forEachWhile(value -> !predicate.test(value) || action.test(value));
+  }
+
+  default public QDoubleIterable map(DoubleUnaryOperator function) {
+    return action -> this.forEachWhile(value -> action.test(function.applyAsDouble(value)));
+  }
+
+  default public QIntIterable mapToInt(DoubleToIntFunction function) {
+    return action -> this.forEachWhile(value -> action.test(function.applyAsInt(value)));
+  }
+
+  default public QLongIterable mapToLong(DoubleToLongFunction function) {
+    return action -> this.forEachWhile(value -> action.test(function.applyAsLong(value)));
+  }
+
+  default public <U> QIterable<U> mapToObj(DoubleFunction<U> function) {
+    QDoubleIterable self = this;
+    return new PushIterable<U>() {
+      @Override
+      public boolean forEachWhile(Predicate<U> action) {
+        return self.forEachWhile(value -> action.test(function.apply(value)));
+      }
+    };
+  }
+
+  default public QIterable<Double> boxed() {
+    return mapToObj(Double::valueOf);
+  }
+
+  /**
+   * Each value once, in encounter order. Values are compared like Double.equals:
+   * NaN equals itself, and 0.0 and -0.0 are different.
+   */
+  default public QDoubleIterable distinct() {
+    return action -> {
+      QLongSet seenValues = new QLongSet();
+      return this.forEachWhile(value -> !seenValues.add(Double.doubleToLongBits(value)) || action.test(value));
+    };
+  }
+
+  /**
+   * The values in ascending order, as a new list.
+   */
+  default public QDoubleList sort() {
+    QDoubleList sorted = toList();
+    sorted.sortInPlace();
+    return sorted;
+  }
+
+  default public long count() {
+    long[] count = { 0 };
+    forEachWhile(value -> {
+      count[0]++;
+      return true;
+    });
+
+    return count[0];
+  }
+
+  default public boolean any() {
+    return !forEachWhile(value -> false);
+  }
+
+  default public boolean any(DoublePredicate predicate) {
+    return !forEachWhile(value -> !predicate.test(value));
+  }
+
+  default public boolean all(DoublePredicate predicate) {
+    return forEachWhile(predicate);
+  }
+
+  default public double first() {
+    double[] first = new double[1];
+    if (forEachWhile(value -> {
+      first[0] = value;
+      return false;
+    })) {
+      throw new QueryException("Sequence contains no items");
+    }
+
+    return first[0];
+  }
+
+  /**
+   * Uses compensated summation, like sumDouble on QIterable.
+   */
+  default public double sum() {
+    CompensatedSum sum = new CompensatedSum();
+    forEachWhile(value -> {
+      sum.add(value);
+      return true;
+    });
+
+    return sum.value();
+  }
+
+  default public double avg() {
+    CompensatedSum sum = new CompensatedSum();
+    forEachWhile(value -> {
+      sum.add(value);
+      return true;
+    });
+
+    return sum.value() / (double) sum.count();
+  }
+
+  default public double min() {
+    double[] min = new double[1];
+    boolean[] isEmpty = { true };
+    forEachWhile(value -> {
+      if (isEmpty[0] || value < min[0]) min[0] = value;
+      isEmpty[0] = false;
+      return true;
+    });
+
+    if (isEmpty[0]) throw new QueryException("Sequence contains no items");
+    return min[0];
+  }
+
+  default public double max() {
+    double[] max = new double[1];
+    boolean[] isEmpty = { true };
+    forEachWhile(value -> {
+      if (isEmpty[0] || value > max[0]) max[0] = value;
+      isEmpty[0] = false;
+      return true;
+    });
+
+    if (isEmpty[0]) throw new QueryException("Sequence contains no items");
+    return max[0];
+  }
+
+  default public double[] toArray() {
+    return toList().toArray();
+  }
+
+  default public QDoubleList toList() {
+    QDoubleList list = new QDoubleList();
+    forEachWhile(value -> {
+      list.add(value);
+      return true;
+    });
+
+    return list;
+  }
+}
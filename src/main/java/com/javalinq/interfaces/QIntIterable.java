@@ -0,0 +1,194 @@
+package com.javalinq.interfaces;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.implementations.QIntList;
+import com.javalinq.implementations.QIntSet;
+import com.javalinq.iterators.PushIterable;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * A query over ints that never boxes. Everything is built on forEachWhile: operators wrap
+ * the action they're given and push values straight through, so where(...).map(...).sum()
+ * is one loop over the source with no Integer in sight. Operators are deferred just like
+ * QIterable's, and can be read any number of times.
+ *
+ * Use mapToObj or boxed to get back to a QIterable.
+ */
+public interface QIntIterable {
+  /**
+   * Pushes each value to the action until it returns false.
+   * @return true if every value was visited.
+   */
+  boolean forEachWhile(IntPredicate action);
+
+  default public void forEach(IntConsumer action) {
+    forEachWhile(value -> {
+      action.accept(value);
+      return true;
+    });
+  }
+
+  default public QIntIterable where(IntPredicate predicate) {
+    return action -> this.forEachWhile(value -> !predicate.test(value) || action.test(value));
+  }
+
+  default public QIntIterable map(IntUnaryOperator function) {
+    return action -> this.forEachWhile(value -> action.test(function.applyAsInt(value)));
+  }
+
+  default public QLongIterable mapToLong(IntToLongFunction function) {
+    return action -> this.forEachWhile(value -> action.test(function.applyAsLong(value)));
+  }
+
+  default public QDoubleIterable mapToDouble(IntToDoubleFunction function) {
+    return action -> this.forEachWhile(value -> action.test(function.applyAsDouble(value)));
+  }
+
+  default public <U> QIterable<U> mapToObj(IntFunction<U> function) {
+    QIntIterable self = this;
+    return new PushIterable<U>() {
+      @Override
+      public boolean forEachWhile(Predicate<U> action) {
+        return self.forEachWhile(value -> action.test(function.apply(value)));
+      }
+    };
+  }
+
+  default public QIterable<Integer> boxed() {
+    return mapToObj(Integer::valueOf);
+  }
+
+  /**
+   * Each value once, in encounter order.
+   */
+  default public QIntIterable distinct() {
+    return action -> {
+      QIntSet seenValues = new QIntSet();
+      return this.forEachWhile(value -> !seenValues.add(value) || action.test(value));
+    };
+  }
+
+  /**
+   * The values in ascending order, as a new list.
+   */
+  default public QIntList sort() {
+    QIntList sorted = toList();
+    sorted.sortInPlace();
+    return sorted;
+  }
+
+  default public long count() {
+    long[] count = { 0 };
+    forEachWhile(value -> {
+      count[0]++;
+      return true;
+    });
+
+    return count[0];
+  }
+
+  default public boolean any() {
+    return !forEachWhile(value -> false);
+  }
+
+  default public boolean any(IntPredicate predicate) {
+    return !forEachWhile(value -> !predicate.test(value));
+  }
+
+  default public boolean all(IntPredicate predicate) {
+    return forEachWhile(predicate);
+  }
+
+  default public int first() {
+    int[] first = new int[1];
+    if (forEachWhile(value -> {
+      first[0] = value;
+      return false;
+    })) {
+      throw new QueryException("Sequence contains no items");
+    }
+
+    return first[0];
+  }
+
+  /**
+   * Summed in a long, so it won't overflow for fewer than 2^32 values.
+   */
+  default public long sum() {
+    long[] sum = { 0 };
+    forEachWhile(value -> {
+      sum[0] += value;
+      return true;
+    });
+
+    return sum[0];
+  }
+
+  default public double avg() {
+    long[] totals = { 0, 0 };
+    forEachWhile(value -> {
+      totals[0] += value;
+      totals[1]++;
+      return true;
+    });
+
+    return (double) totals[0] / (double) totals[1];
+  }
+
+  default public int min() {
+    int[] min = new int[1];
+    boolean[] isEmpty = { true };
+    forEachWhile(value -> {
+      if (isEmpty[0] || value < min[0]) min[0] = value;
+      isEmpty[0] = false;
+      return true;
+    });
+
+    if (isEmpty[0]) throw new QueryException("Sequence contains no items");
+    return min[0];
+  }
+
+  default public int max() {
+    int[] max = new int[1];
+    boolean[] isEmpty = { true };
+    forEachWhile(value -> {
+      if (isEmpty[0] || value > max[0]) max[0] = value;
+      isEmpty[0] = false;
+      return true;
+    });
+
+    if (isEmpty[0]) throw new QueryException("Sequence contains no items");
+    return max[0];
+  }
+
+  default public int[] toArray() {
+    return toList().toArray();
+  }
+
+  default public QIntList toList() {
+    QIntList list = new QIntList();
+    forEachWhile(value -> {
+      list.add(value);
+      return true;
+    });
+
+    return list;
+  }
+
+  default public QIntSet toSet() {
+    QIntSet set = new QIntSet();
+    forEachWhile(value -> {
+      set.add(value);
+      return true;
+    });
+
+    return set;
+  }
+}
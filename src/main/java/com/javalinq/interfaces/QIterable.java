@@ -3,15 +3,55 @@ package com.javalinq.interfaces;
 
 import com.javalinq.exceptions.QueryException;
 import com.javalinq.implementations.QList;
+import com.javalinq.implementations.QMap;
 import com.javalinq.implementations.QSet;
+import com.javalinq.iterators.AsyncMapIterable;
+import com.javalinq.iterators.BatchIterable;
+import com.javalinq.iterators.ConcatIterable;
+import com.javalinq.iterators.DistinctIterable;
+import com.javalinq.iterators.FlattenIterable;
+import com.javalinq.iterators.GroupJoinIterable;
+import com.javalinq.iterators.JoinIterable;
+import com.javalinq.iterators.LimitIterable;
 import com.javalinq.iterators.MapIterable;
+import com.javalinq.iterators.MemoizeIterable;
+import com.javalinq.iterators.OrderedIterable;
+import com.javalinq.iterators.ParallelIterable;
+import com.javalinq.iterators.ProfiledIterable;
+import com.javalinq.iterators.ReverseIterable;
+import com.javalinq.iterators.SetFilterIterable;
+import com.javalinq.iterators.SkipWhileIterable;
+import com.javalinq.iterators.StreamIterable;
+import com.javalinq.iterators.TakeWhileIterable;
+import com.javalinq.iterators.TopIterable;
 import com.javalinq.iterators.WhereIterable;
+import com.javalinq.tools.CompensatedSum;
+import com.javalinq.tools.ExactSum;
+import com.javalinq.tools.Aggregators;
+import com.javalinq.tools.HeavyHitters;
+import com.javalinq.tools.HyperLogLog;
+import com.javalinq.tools.KeyValuePair;
+import com.javalinq.tools.OperatorProfile;
 import com.javalinq.tools.Partition;
+import com.javalinq.tools.QuantileSketch;
+import com.javalinq.tools.QueryPlan;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Created by sircodesalot on 14-5-30.
@@ -35,37 +75,171 @@ public interface QIterable<T> extends Iterable<T>, Serializable {
   }
 
   default public <U> QIterable<U> map(Function<T, U> projection) {
-    return new MapIterable<T, U>(this, projection);
+    return MapIterable.of(this, projection);
+  }
+
+  /**
+   * Bridges to a QIntIterable, so the rest of the query runs on ints without boxing.
+   */
+  default public QIntIterable mapToInt(ToIntFunction<T> projection) {
+    return action -> this.forEachWhile(item -> action.test(projection.applyAsInt(item)));
+  }
+
+  default public QLongIterable mapToLong(ToLongFunction<T> projection) {
+    return action -> this.forEachWhile(item -> action.test(projection.applyAsLong(item)));
+  }
+
+  default public QDoubleIterable mapToDouble(ToDoubleFunction<T> projection) {
+    return action -> this.forEachWhile(item -> action.test(projection.applyAsDouble(item)));
+  }
+
+  /**
+   * Runs the projection (which may block) on up to maxInFlight items at once, returning
+   * results in source order. See AsyncMapIterable.
+   */
+  default public <U> QIterable<U> mapAsync(Function<T, U> projection, int maxInFlight) {
+    return this.mapAsync(projection, maxInFlight, AsyncMapIterable.defaultExecutor());
+  }
+
+  default public <U> QIterable<U> mapAsync(Function<T, U> projection, int maxInFlight, Executor executor) {
+    return new AsyncMapIterable<>(this, item -> CompletableFuture.supplyAsync(() -> projection.apply(item), executor), maxInFlight, true);
+  }
+
+  /**
+   * Like mapAsync, but returns each result as soon as it's ready.
+   */
+  default public <U> QIterable<U> mapAsyncUnordered(Function<T, U> projection, int maxInFlight) {
+    return this.mapAsyncUnordered(projection, maxInFlight, AsyncMapIterable.defaultExecutor());
+  }
+
+  default public <U> QIterable<U> mapAsyncUnordered(Function<T, U> projection, int maxInFlight, Executor executor) {
+    return new AsyncMapIterable<>(this, item -> CompletableFuture.supplyAsync(() -> projection.apply(item), executor), maxInFlight, false);
+  }
+
+  /**
+   * For projections that are already asynchronous: keeps up to maxInFlight of the futures
+   * they return outstanding, returning results in source order.
+   */
+  default public <U> QIterable<U> composeAsync(Function<T, CompletableFuture<U>> projection, int maxInFlight) {
+    return new AsyncMapIterable<>(this, projection, maxInFlight, true);
+  }
+
+  default public <U> QIterable<U> composeAsyncUnordered(Function<T, CompletableFuture<U>> projection, int maxInFlight) {
+    return new AsyncMapIterable<>(this, projection, maxInFlight, false);
   }
 
   default public QIterable<T> distinct() {
-    QIterable<T> self = this;
-    return new QIterable<T>() {
-      @Override
-      public Iterator<T> iterator() {
-        QSet<T> seenItems = new QSet<>();
-        return self.where(seenItems::add).iterator();
-      }
-    };
+    return new DistinctIterable<>(this, item -> item);
   }
 
   default public <U> QIterable<T> distinct(Function<T, U> onProperty) {
-    QIterable<T> self = this;
-    return new QIterable<T>() {
+    return new DistinctIterable<>(this, onProperty);
+  }
+
+  /**
+   * Pushes each item to the action until it returns false. Operators override this to
+   * hand items straight down the chain, so the terminals below run as one loop over the
+   * source instead of pulling every item through a stack of iterators.
+   * @return true if every item was visited, false if the action stopped early.
+   */
+  default public boolean forEachWhile(Predicate<T> action) {
+    for (T item : this) {
+      if (!action.test(item)) return false;
+    }
 
-      @Override
-      public Iterator<T> iterator() {
-        QSet<U> seenItems = new QSet<>();
-        return self.where(item -> seenItems.add(onProperty.apply(item))).iterator();
+    return true;
+  }
+
+  @Override
+  default public void forEach(Consumer<? super T> action) {
+    this.forEachWhile(item -> {
+      action.accept(item);
+      return true;
+    });
+  }
+
+  /**
+   * Groups the items into lists of 'size' (the last one may be shorter). Batches of a QList
+   * are views of it, anything else is copied into a new list per batch.
+   */
+  default public QIterable<QList<T>> batch(int size) {
+    return new BatchIterable<>(this, size);
+  }
+
+  /**
+   * Passes the items to the action 'size' at a time. The list passed in is reused for the
+   * next batch (or, for a QList, is a view of it), so copy it before keeping it.
+   */
+  default public void forEachBatch(int size, Consumer<QList<T>> action) {
+    if (size <= 0) throw new QueryException("Batch size must be positive, was %s", size);
+
+    QList<T> buffer = new QList<>();
+    this.forEach(item -> {
+      buffer.add(item);
+      if (buffer.size() == size) {
+        action.accept(buffer);
+        buffer.clear();
       }
-    };
+    });
+
+    if (buffer.any()) action.accept(buffer);
+  }
+
+  /**
+   * The first 'count' items. The source stops being read once they've been handed out.
+   */
+  default public QIterable<T> take(int count) {
+    return LimitIterable.of(this, 0, count);
+  }
+
+  /**
+   * Everything after the first 'count' items. Indexed sources start reading at the offset.
+   */
+  default public QIterable<T> skip(int count) {
+    return LimitIterable.of(this, count, Integer.MAX_VALUE);
+  }
+
+  /**
+   * The 'size' items starting at 'offset', i.e. skip(offset).take(size).
+   */
+  default public QIterable<T> page(int offset, int size) {
+    return LimitIterable.of(this, offset, size);
+  }
+
+  default public QIterable<T> takeWhile(Predicate<T> predicate) {
+    return new TakeWhileIterable<>(this, predicate);
+  }
+
+  default public QIterable<T> skipWhile(Predicate<T> predicate) {
+    return new SkipWhileIterable<>(this, predicate);
+  }
+
+  /**
+   * Like get(index), but reads no further than the item asked for, and random access
+   * sources go straight to it.
+   */
+  default public T elementAt(int index) {
+    if (index < 0) throw new QueryException("Index %s is out of range", index);
+
+    Object[] element = new Object[1];
+    boolean isMissing = this.skip(index).forEachWhile(item -> {
+      element[0] = item;
+      return false;
+    });
+
+    if (isMissing) throw new QueryException("Index %s is out of range", index);
+    return (T) element[0];
   }
 
   default public T first() {
-    Iterator<T> iterator = this.iterator();
-    if (iterator.hasNext()) return iterator.next();
+    Object[] first = new Object[1];
+    boolean isEmpty = this.forEachWhile(item -> {
+      first[0] = item;
+      return false;
+    });
 
-    throw new QueryException("Sequence contains no items");
+    if (isEmpty) throw new QueryException("Sequence contains no items");
+    return (T) first[0];
   }
 
   default public T second() {
@@ -118,10 +292,13 @@ public interface QIterable<T> extends Iterable<T>, Serializable {
   }
 
   default public T firstOrNull() {
-    Iterator<T> iterator = this.iterator();
-    if (iterator.hasNext()) return iterator.next();
+    Object[] first = new Object[1];
+    this.forEachWhile(item -> {
+      first[0] = item;
+      return false;
+    });
 
-    return null;
+    return (T) first[0];
   }
 
   default public T singleOrNull() {
@@ -183,34 +360,65 @@ public interface QIterable<T> extends Iterable<T>, Serializable {
     return new Partition<>(this, onProperty);
   }
 
-  default public <U> QIterable<U> flatten(Function<T, QIterable<U>> onProperty) {
-    QList<U> resultSet = new QList<>();
+  /**
+   * Streams the items into one accumulator per key, without keeping the items themselves.
+   * e.g. 'orders.groupBy(order -> order.region, Aggregators.count())'. Keys may not be null.
+   */
+  default public <K, A, R> QMap<K, R> groupBy(Function<T, K> onKey, Aggregator<T, A, R> aggregator) {
+    return Aggregators.finish(this.aggregateBy(onKey, aggregator::create, aggregator::accumulate), aggregator);
+  }
+
+  /**
+   * Streams the items into one mutable accumulator per key, created by 'seed' the first time
+   * the key is seen. Each item costs a single hash lookup.
+   */
+  default public <K, A> QMap<K, A> aggregateBy(Function<T, K> onKey, Supplier<A> seed, BiConsumer<A, T> accumulate) {
+    QMap<K, A> groups = new QMap<>();
+    Function<K, A> create = key -> seed.get();
 
     for (T item : this) {
-      for (U subSetItem : onProperty.apply(item)) {
-        resultSet.add(subSetItem);
-      }
+      accumulate.accept(groups.computeIfAbsent(onKey.apply(item), create), item);
     }
 
-    return resultSet;
+    return groups;
+  }
+
+  default public <U> QIterable<U> flatten(Function<T, QIterable<U>> onProperty) {
+    return new FlattenIterable<>(this, onProperty);
+  }
+
+  default public <I, K, R> QIterable<R> join(Iterable<I> inner, Function<T, K> outerKey, Function<I, K> innerKey,
+                                             BiFunction<T, I, R> resultSelector) {
+    return new JoinIterable<>(this, inner, outerKey, innerKey, resultSelector, false);
+  }
+
+  // Like join, but outer items with no match are kept, paired with null.
+  default public <I, K, R> QIterable<R> leftJoin(Iterable<I> inner, Function<T, K> outerKey, Function<I, K> innerKey,
+                                                 BiFunction<T, I, R> resultSelector) {
+    return new JoinIterable<>(this, inner, outerKey, innerKey, resultSelector, true);
+  }
+
+  default public <I, K, R> QIterable<R> groupJoin(Iterable<I> inner, Function<T, K> outerKey, Function<I, K> innerKey,
+                                                  BiFunction<T, QIterable<I>, R> resultSelector) {
+    return new GroupJoinIterable<>(this, inner, outerKey, innerKey, resultSelector);
   }
 
   default public boolean any() {
-    return this.iterator().hasNext();
+    return !this.forEachWhile(item -> false);
   }
 
   default public boolean any(Predicate<T> predicate) {
-    return this.where(predicate).any();
+    return !this.forEachWhile(item -> !predicate.test(item));
   }
 
   default public boolean all(Predicate<T> predicate) {
-    return !this.where(item -> !predicate.test(item)).any();
+    return this.forEachWhile(predicate);
   }
 
   default public double sum(Function<T, Double> onProperty) {
-    double sum = 0;
-    for (T item : this) sum += onProperty.apply(item);
-    return sum;
+    double[] sum = new double[1];
+    this.forEach(item -> sum[0] += onProperty.apply(item));
+    return sum[0];
   }
 
   default public double avg(Function<T, Double> onProperty) {
@@ -266,135 +474,336 @@ public interface QIterable<T> extends Iterable<T>, Serializable {
     return maxItem;
   }
 
-  default public QIterable<T> except(Iterable<T> rSet) {
-    // First build the set of rSet to except.
-    // Items may already be a set, so just use that if available.
-    QSet<T> exceptItems;
-    if (rSet instanceof QSet)
-      exceptItems = (QSet<T>) rSet;
-    else {
-      exceptItems = new QSet<>();
-      for (T item : rSet) exceptItems.add(item);
+  // Primitive aggregates. These never box, so they're the ones to use on numeric columns.
+  default public long sumInt(ToIntFunction<T> onProperty) {
+    long[] sum = new long[1];
+    this.forEach(item -> sum[0] += onProperty.applyAsInt(item));
+    return sum[0];
+  }
+
+  default public long sumLong(ToLongFunction<T> onProperty) {
+    long[] sum = new long[1];
+    this.forEach(item -> sum[0] += onProperty.applyAsLong(item));
+    return sum[0];
+  }
+
+  default public double sumDouble(ToDoubleFunction<T> onProperty) {
+    CompensatedSum sum = new CompensatedSum();
+    this.forEach(item -> sum.add(onProperty.applyAsDouble(item)));
+    return sum.value();
+  }
+
+  // The same accumulator as the parallel override, so both give the same result.
+  default public double avgInt(ToIntFunction<T> onProperty) {
+    ExactSum sum = new ExactSum();
+    for (T item : this) sum.add(onProperty.applyAsInt(item));
+    return sum.average();
+  }
+
+  default public double avgLong(ToLongFunction<T> onProperty) {
+    ExactSum sum = new ExactSum();
+    for (T item : this) sum.add(onProperty.applyAsLong(item));
+    return sum.average();
+  }
+
+  default public double avgDouble(ToDoubleFunction<T> onProperty) {
+    CompensatedSum sum = new CompensatedSum();
+    for (T item : this) sum.add(onProperty.applyAsDouble(item));
+    return sum.average();
+  }
+
+  default public T maxByInt(ToIntFunction<T> onProperty) {
+    T maxItem = null;
+    int maxValue = 0;
+    boolean isFirst = true;
+
+    for (T item : this) {
+      int value = onProperty.applyAsInt(item);
+      if (isFirst || value > maxValue) {
+        maxItem = item;
+        maxValue = value;
+        isFirst = false;
+      }
     }
 
-    QList<T> subSet = new QList<>();
+    return maxItem;
+  }
+
+  default public T maxByLong(ToLongFunction<T> onProperty) {
+    T maxItem = null;
+    long maxValue = 0;
+    boolean isFirst = true;
+
     for (T item : this) {
-      if (!exceptItems.contains(item)) {
-        subSet.add(item);
+      long value = onProperty.applyAsLong(item);
+      if (isFirst || value > maxValue) {
+        maxItem = item;
+        maxValue = value;
+        isFirst = false;
       }
     }
 
-    return subSet;
+    return maxItem;
   }
 
-  default public QIterable<T> concat(Iterable<T> rhs) {
-    QList<T> allItems = new QList<>();
-    for (T item : this) allItems.add(item);
-    for (T item : rhs) allItems.add(item);
+  default public T maxByDouble(ToDoubleFunction<T> onProperty) {
+    T maxItem = null;
+    double maxValue = 0;
+    boolean isFirst = true;
+
+    for (T item : this) {
+      double value = onProperty.applyAsDouble(item);
+      if (isFirst || Double.compare(value, maxValue) > 0) {
+        maxItem = item;
+        maxValue = value;
+        isFirst = false;
+      }
+    }
 
-    return allItems;
+    return maxItem;
   }
 
-  default public QIterable<T> unionDistinct(Iterable<T> rhs) {
-    QSet<T> allItems = new QSet<>();
-    for (T item : this) allItems.add(item);
-    for (T item : rhs) allItems.add(item);
+  default public T minByInt(ToIntFunction<T> onProperty) {
+    T minItem = null;
+    int minValue = 0;
+    boolean isFirst = true;
 
-    return allItems;
+    for (T item : this) {
+      int value = onProperty.applyAsInt(item);
+      if (isFirst || value < minValue) {
+        minItem = item;
+        minValue = value;
+        isFirst = false;
+      }
+    }
+
+    return minItem;
   }
 
-  default public QIterable<T> intersect(Iterable<T> rSet) {
-    // Move the rset into a set (if it isn't one already).
-    QSet<T> rhs;
-    if (rSet instanceof QSet) rhs = (QSet<T>) rSet;
-    else {
-      rhs = new QSet<>();
-      for (T item : rSet) {
-        rhs.add(item);
+  default public T minByLong(ToLongFunction<T> onProperty) {
+    T minItem = null;
+    long minValue = 0;
+    boolean isFirst = true;
+
+    for (T item : this) {
+      long value = onProperty.applyAsLong(item);
+      if (isFirst || value < minValue) {
+        minItem = item;
+        minValue = value;
+        isFirst = false;
       }
     }
 
-    // For each item in this set, if it's in the rset,
-    // add it to the result set.
-    QList<T> resultSet = new QList<>();
+    return minItem;
+  }
+
+  default public T minByDouble(ToDoubleFunction<T> onProperty) {
+    T minItem = null;
+    double minValue = 0;
+    boolean isFirst = true;
+
     for (T item : this) {
-      if (rhs.contains(item)) resultSet.add(item);
+      double value = onProperty.applyAsDouble(item);
+      if (isFirst || Double.compare(value, minValue) < 0) {
+        minItem = item;
+        minValue = value;
+        isFirst = false;
+      }
     }
 
-    return resultSet;
+    return minItem;
+  }
+
+  default public QIterable<T> except(Iterable<T> rSet) {
+    return SetFilterIterable.except(this, rSet);
+  }
+
+  default public QIterable<T> concat(Iterable<T> rhs) {
+    return new ConcatIterable<>(this, rhs);
   }
 
-  default public <U extends Comparable> QIterable<T> sort(Function<T, U> onProperty) {
-    List<T> items = new ArrayList<T>();
-    for (T item : this) items.add(item);
+  default public QIterable<T> unionDistinct(Iterable<T> rhs) {
+    return this.concat(rhs).distinct();
+  }
 
-    items.sort(new Comparator<T>() {
-      @Override
-      public int compare(T lhs, T rhs) {
-        U lProperty = onProperty.apply(lhs);
-        U rProperty = onProperty.apply(rhs);
+  default public QIterable<T> intersect(Iterable<T> rSet) {
+    return SetFilterIterable.intersect(this, rSet);
+  }
 
-        return lProperty.compareTo(rProperty);
-      }
-    });
+  default public <U extends Comparable> OrderedIterable<T> sort(Function<T, U> onProperty) {
+    return this.orderBy(onProperty);
+  }
 
-    return new QIterable<T>() {
-      @Override
-      public Iterator<T> iterator() {
-        return items.iterator();
-      }
-    };
+  default public <U extends Comparable> OrderedIterable<T> orderBy(Function<T, U> onProperty) {
+    return OrderedIterable.by(this, onProperty, false);
+  }
+
+  default public <U extends Comparable> OrderedIterable<T> orderByDescending(Function<T, U> onProperty) {
+    return OrderedIterable.by(this, onProperty, true);
+  }
+
+  default public OrderedIterable<T> orderByInt(ToIntFunction<T> onProperty) {
+    return OrderedIterable.byInt(this, onProperty, false);
+  }
+
+  default public OrderedIterable<T> orderByIntDescending(ToIntFunction<T> onProperty) {
+    return OrderedIterable.byInt(this, onProperty, true);
+  }
+
+  default public OrderedIterable<T> orderByLong(ToLongFunction<T> onProperty) {
+    return OrderedIterable.byLong(this, onProperty, false);
+  }
+
+  default public OrderedIterable<T> orderByLongDescending(ToLongFunction<T> onProperty) {
+    return OrderedIterable.byLong(this, onProperty, true);
+  }
+
+  default public OrderedIterable<T> orderByDouble(ToDoubleFunction<T> onProperty) {
+    return OrderedIterable.byDouble(this, onProperty, false);
+  }
+
+  default public OrderedIterable<T> orderByDoubleDescending(ToDoubleFunction<T> onProperty) {
+    return OrderedIterable.byDouble(this, onProperty, true);
+  }
+
+  // The 'count' items with the largest keys, largest first.
+  default public <U extends Comparable> QIterable<T> top(int count, Function<T, U> onProperty) {
+    return new TopIterable<>(this, count, onProperty, (lhs, rhs) -> rhs.compareTo(lhs));
+  }
+
+  // The 'count' items with the smallest keys, smallest first.
+  default public <U extends Comparable> QIterable<T> bottom(int count, Function<T, U> onProperty) {
+    return new TopIterable<>(this, count, onProperty, (lhs, rhs) -> lhs.compareTo(rhs));
   }
 
   default public long count() {
-    int count = 0;
-    for (T item : this) count++;
-    return count;
+    long[] count = new long[1];
+    this.forEach(item -> count[0]++);
+    return count[0];
   }
 
   default public QIterable<T> reverse() {
-    // Return a query iterable using the stack
-    return new QIterable<T>() {
-      @Override
-      public Iterator<T> iterator() {
-        // Before constructing the iterator,
-        // Push all items onto the stack. Pop as we go.
-        Stack<T> stack = new Stack<>();
-        for (T item : QIterable.this) stack.push(item);
-
-        return new Iterator<T>() {
-          @Override
-          public boolean hasNext() {
-            return !stack.empty();
-          }
-
-          @Override
-          public T next() {
-            return stack.pop();
-          }
-        };
-      }
-    };
+    return ReverseIterable.of(this);
   }
 
   default public <U> U reduce(U collector, Reducer<T, U> reducer) {
-    for (T item : this) {
-      collector = reducer.reduce(collector, item);
-    }
-
-    return collector;
+    Object[] result = { collector };
+    this.forEach(item -> result[0] = reducer.reduce((U) result[0], item));
+    return (U) result[0];
   }
 
   default public long count(Predicate<T> predicate) {
     return this.where(predicate).count();
   }
 
+  // Caches results as they're read, so the query runs at most once however it's read afterwards.
+  default public MemoizeIterable<T> memoize() {
+    return new MemoizeIterable<>(this);
+  }
+
+  default public MemoizeIterable<T> memoize(int maxCached) {
+    return new MemoizeIterable<>(this, maxCached);
+  }
+
+  // The operator tree of the query.
+  default public QueryPlan explain() {
+    return QueryPlan.of(this);
+  }
+
+  // A copy of the query that counts rows, time and allocations per operator.
+  default public ProfiledIterable<T> profile() {
+    return ProfiledIterable.of(this, null);
+  }
+
+  default public ProfiledIterable<T> profile(Consumer<OperatorProfile> onComplete) {
+    return ProfiledIterable.of(this, onComplete);
+  }
+
+  default public Stream<T> stream() {
+    return StreamSupport.stream(this.spliterator(), false);
+  }
+
+  default public Stream<T> parallelStream() {
+    return StreamSupport.stream(this.spliterator(), true);
+  }
+
+  // Reads the stream as it's iterated instead of collecting it first, so the result can only be read once.
+  public static <T> QIterable<T> from(Stream<T> stream) {
+    return new StreamIterable<>(stream);
+  }
+
+  default public ParallelIterable<T> parallel() {
+    return this.parallel(ForkJoinPool.commonPool());
+  }
+
+  default public ParallelIterable<T> parallel(ForkJoinPool pool) {
+    return new ParallelIterable<>(this, pool);
+  }
+
+  default public QIterable<T> sequential() {
+    return this;
+  }
+
+  /**
+   * Estimates distinct(onProperty).count() in 2^precision bytes (see HyperLogLog), for
+   * when there are too many distinct values to hold in a set.
+   */
+  default public <U> long approxCountDistinct(Function<T, U> onProperty, int precision) {
+    return this.toHyperLogLog(onProperty, precision).estimate();
+  }
+
+  default public <U> long approxCountDistinct(Function<T, U> onProperty) {
+    return this.approxCountDistinct(onProperty, HyperLogLog.DEFAULT_PRECISION);
+  }
+
+  /**
+   * Estimates the value below which a fraction q of the values fall (0.5 for the median),
+   * without sorting or holding them (see QuantileSketch).
+   */
+  default public double approxQuantile(ToDoubleFunction<T> onProperty, double q) {
+    return this.toQuantileSketch(onProperty).quantile(q);
+  }
+
+  /**
+   * The 'count' most frequent keys with their (over)estimated counts, most frequent first.
+   * Counts with eight counters per key asked for (see HeavyHitters).
+   */
+  default public <K> QList<KeyValuePair<K, Long>> approxTopFrequent(Function<T, K> onKey, int count) {
+    return this.toHeavyHitters(onKey, Math.max(count, 1) * 8).top(count);
+  }
+
+  /**
+   * The sketches behind the approx operators, which can be merged with those of other
+   * scans or shards.
+   */
+  default public <U> HyperLogLog toHyperLogLog(Function<T, U> onProperty, int precision) {
+    HyperLogLog sketch = new HyperLogLog(precision);
+    this.forEach(item -> sketch.add(onProperty.apply(item)));
+    return sketch;
+  }
+
+  default public QuantileSketch toQuantileSketch(ToDoubleFunction<T> onProperty) {
+    QuantileSketch sketch = new QuantileSketch();
+    this.forEach(item -> sketch.add(onProperty.applyAsDouble(item)));
+    return sketch;
+  }
+
+  default public <K> HeavyHitters<K> toHeavyHitters(Function<T, K> onKey, int capacity) {
+    HeavyHitters<K> sketch = new HeavyHitters<>(capacity);
+    this.forEach(item -> sketch.add(onKey.apply(item)));
+    return sketch;
+  }
+
   default public QList<T> toList() {
-    return new QList<>(this);
+    QList<T> list = new QList<>();
+    this.forEach(item -> list.add(item));
+    return list;
   }
 
   default public QSet<T> toSet() {
-    return new QSet<>(this);
+    QSet<T> set = new QSet<>();
+    this.forEach(item -> set.add(item));
+    return set;
   }
 
   class MyCollection<T> implements QIterable<T> {
@@ -0,0 +1,197 @@
+package com.javalinq.interfaces;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.implementations.QLongList;
+import com.javalinq.implementations.QLongSet;
+import com.javalinq.iterators.PushIterable;
+import com.javalinq.tools.ExactSum;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * A query over longs that never boxes. Everything is built on forEachWhile: operators wrap
+ * the action they're given and push values straight through, so where(...).map(...).sum()
+ * is one loop over the source with no Long in sight. Operators are deferred just like
+ * QIterable's, and can be read any number of times.
+ *
+ * Use mapToObj or boxed to get back to a QIterable.
+ */
+public interface QLongIterable {
+  /**
+   * Pushes each value to the action until it returns false.
+   * @return true if every value was visited.
+   */
+  boolean forEachWhile(LongPredicate action);
+
+  default public void forEach(LongConsumer action) {
+    forEachWhile(value -> {
+      action.accept(value);
+      return true;
+    });
+  }
+
+  default public QLongIterable where(LongPredicate predicate) {
+    return action -> this.forEachWhile(value -> !predicate.test(value) || action.test(value));
+  }
+
+  default public QLongIterable map(LongUnaryOperator function) {
+    return action -> this.forEachWhile(value -> action.test(function.applyAsLong(value)));
+  }
+
+  default public QIntIterable mapToInt(LongToIntFunction function) {
+    return action -> this.forEachWhile(value -> action.test(function.applyAsInt(value)));
+  }
+
+  default public QDoubleIterable mapToDouble(LongToDoubleFunction function) {
+    return action -> this.forEachWhile(value -> action.test(function.applyAsDouble(value)));
+  }
+
+  default public <U> QIterable<U> mapToObj(LongFunction<U> function) {
+    QLongIterable self = this;
+    return new PushIterable<U>() {
+      @Override
+      public boolean forEachWhile(Predicate<U> action) {
+        return self.forEachWhile(value -> action.test(function.apply(value)));
+      }
+    };
+  }
+
+  default public QIterable<Long> boxed() {
+    return mapToObj(Long::valueOf);
+  }
+
+  /**
+   * Each value once, in encounter order.
+   */
+  default public QLongIterable distinct() {
+    return action -> {
+      QLongSet seenValues = new QLongSet();
+      return this.forEachWhile(value -> !seenValues.add(value) || action.test(value));
+    };
+  }
+
+  /**
+   * The values in ascending order, as a new list.
+   */
+  default public QLongList sort() {
+    QLongList sorted = toList();
+    sorted.sortInPlace();
+    return sorted;
+  }
+
+  default public long count() {
+    long[] count = { 0 };
+    forEachWhile(value -> {
+      count[0]++;
+      return true;
+    });
+
+    return count[0];
+  }
+
+  default public boolean any() {
+    return !forEachWhile(value -> false);
+  }
+
+  default public boolean any(LongPredicate predicate) {
+    return !forEachWhile(value -> !predicate.test(value));
+  }
+
+  default public boolean all(LongPredicate predicate) {
+    return forEachWhile(predicate);
+  }
+
+  default public long first() {
+    long[] first = new long[1];
+    if (forEachWhile(value -> {
+      first[0] = value;
+      return false;
+    })) {
+      throw new QueryException("Sequence contains no items");
+    }
+
+    return first[0];
+  }
+
+  /**
+   * Overflows silently, like any other long arithmetic.
+   */
+  default public long sum() {
+    long[] sum = { 0 };
+    forEachWhile(value -> {
+      sum[0] += value;
+      return true;
+    });
+
+    return sum[0];
+  }
+
+  /**
+   * Summed in 128 bits (see ExactSum), so unlike sum() this doesn't overflow.
+   */
+  default public double avg() {
+    ExactSum sum = new ExactSum();
+    forEachWhile(value -> {
+      sum.add(value);
+      return true;
+    });
+
+    return sum.average();
+  }
+
+  default public long min() {
+    long[] min = new long[1];
+    boolean[] isEmpty = { true };
+    forEachWhile(value -> {
+      if (isEmpty[0] || value < min[0]) min[0] = value;
+      isEmpty[0] = false;
+      return true;
+    });
+
+    if (isEmpty[0]) throw new QueryException("Sequence contains no items");
+    return min[0];
+  }
+
+  default public long max() {
+    long[] max = new long[1];
+    boolean[] isEmpty = { true };
+    forEachWhile(value -> {
+      if (isEmpty[0] || value > max[0]) max[0] = value;
+      isEmpty[0] = false;
+      return true;
+    });
+
+    if (isEmpty[0]) throw new QueryException("Sequence contains no items");
+    return max[0];
+  }
+
+  default public long[] toArray() {
+    return toList().toArray();
+  }
+
+  default public QLongList toList() {
+    QLongList list = new QLongList();
+    forEachWhile(value -> {
+      list.add(value);
+      return true;
+    });
+
+    return list;
+  }
+
+  default public QLongSet toSet() {
+    QLongSet set = new QLongSet();
+    forEachWhile(value -> {
+      set.add(value);
+      return true;
+    });
+
+    return set;
+  }
+}
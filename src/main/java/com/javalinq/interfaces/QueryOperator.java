@@ -0,0 +1,18 @@
+package com.javalinq.interfaces;
+
+import java.util.List;
+
+/**
+ * A query stage that reads from other iterables. explain() and profile() walk a query
+ * through this interface; anything that doesn't implement it is treated as a source.
+ */
+public interface QueryOperator<T> extends QIterable<T> {
+  String operatorName();
+
+  List<Iterable<?>> sources();
+
+  /**
+   * The same operator reading from the given sources instead (in the order of sources()).
+   */
+  QIterable<T> withSources(List<Iterable<?>> sources);
+}
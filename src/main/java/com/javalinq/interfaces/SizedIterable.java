@@ -0,0 +1,26 @@
+package com.javalinq.interfaces;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * A QIterable that knows how many items it holds without iterating them.
+ */
+public interface SizedIterable<T> extends QIterable<T> {
+  int size();
+
+  @Override
+  default public long count() {
+    return this.size();
+  }
+
+  @Override
+  default public boolean any() {
+    return this.size() > 0;
+  }
+
+  @Override
+  default public Spliterator<T> spliterator() {
+    return Spliterators.spliterator(this.iterator(), this.size(), 0);
+  }
+}
@@ -0,0 +1,184 @@
+package com.javalinq.iterators;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * A projection that runs up to maxInFlight calls at once, for projections that spend their
+ * time waiting (an RPC, a disk lookup) rather than computing. The source is only read as
+ * fast as calls complete, so no more than maxInFlight are ever outstanding.
+ *
+ * Ordered mode hands results back in source order, so one slow call holds back the ones
+ * after it. Unordered mode hands each result back as soon as it's ready.
+ *
+ * Blocking projections run on the executor given, or by default on a virtual thread per
+ * call when the JDK has them (21 and later) and on a shared pool of daemon threads when
+ * it doesn't. A failed call is rethrown from the iterator. If the query stops early, calls
+ * already started are left to finish in the background.
+ */
+public class AsyncMapIterable<T, U> implements QueryOperator<U> {
+  private static final ExecutorService DEFAULT_EXECUTOR = createDefaultExecutor();
+
+  private final QIterable<T> source;
+  private final Function<T, CompletableFuture<U>> projection;
+  private final int maxInFlight;
+  private final boolean isOrdered;
+
+  public AsyncMapIterable(QIterable<T> source, Function<T, CompletableFuture<U>> projection, int maxInFlight, boolean isOrdered) {
+    if (maxInFlight <= 0) throw new QueryException("maxInFlight must be positive, was %s", maxInFlight);
+
+    this.source = source;
+    this.projection = projection;
+    this.maxInFlight = maxInFlight;
+    this.isOrdered = isOrdered;
+  }
+
+  // The library targets Java 8, so the virtual thread executor is looked up rather than linked
+  // to. A multi-release jar (a Java 21 build of this class under META-INF/versions/21) would
+  // also work, but this is a single lookup when the class loads, and it keeps the build to
+  // one source set and one compiler configuration. That trade-off is deliberate.
+  private static ExecutorService createDefaultExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "javalinq-async");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * The executor blocking projections run on when none is given.
+   */
+  public static ExecutorService defaultExecutor() {
+    return DEFAULT_EXECUTOR;
+  }
+
+  @Override
+  public String operatorName() {
+    return String.format(isOrdered ? "MapAsync(%s)" : "MapAsyncUnordered(%s)", maxInFlight);
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<U> withSources(List<Iterable<?>> sources) {
+    return new AsyncMapIterable<>((QIterable<T>) sources.get(0), projection, maxInFlight, isOrdered);
+  }
+
+  @Override
+  public Iterator<U> iterator() {
+    return isOrdered ? new OrderedIterator() : new UnorderedIterator();
+  }
+
+  private CompletableFuture<U> start(T item) {
+    try {
+      return projection.apply(item);
+    } catch (RuntimeException ex) {
+      CompletableFuture<U> failed = new CompletableFuture<>();
+      failed.completeExceptionally(ex);
+      return failed;
+    }
+  }
+
+  private static RuntimeException rethrow(Throwable failure) {
+    Throwable cause = (failure instanceof CompletionException && failure.getCause() != null) ? failure.getCause() : failure;
+    if (cause instanceof RuntimeException) return (RuntimeException) cause;
+    if (cause instanceof Error) throw (Error) cause;
+
+    QueryException wrapped = new QueryException("An asynchronous projection failed: %s", cause);
+    wrapped.initCause(cause);
+    return wrapped;
+  }
+
+  // Keeps the calls in a queue in source order, and waits on the oldest.
+  private class OrderedIterator implements Iterator<U> {
+    private final Iterator<T> items = source.iterator();
+    private final ArrayDeque<CompletableFuture<U>> inFlight = new ArrayDeque<>();
+
+    private void fill() {
+      while (inFlight.size() < maxInFlight && items.hasNext()) {
+        inFlight.add(start(items.next()));
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      fill();
+      return !inFlight.isEmpty();
+    }
+
+    @Override
+    public U next() {
+      if (!hasNext()) throw new NoSuchElementException();
+
+      try {
+        return inFlight.poll().join();
+      } catch (CompletionException ex) {
+        throw rethrow(ex);
+      }
+    }
+  }
+
+  // Each call posts its outcome to a queue as it completes, and results are taken from that.
+  private class UnorderedIterator implements Iterator<U> {
+    private final Iterator<T> items = source.iterator();
+    private final BlockingQueue<CompletableFuture<U>> completed = new LinkedBlockingQueue<>();
+    private int inFlight;
+
+    private void fill() {
+      while (inFlight < maxInFlight && items.hasNext()) {
+        CompletableFuture<U> call = start(items.next());
+        call.whenComplete((result, failure) -> completed.add(call));
+        inFlight++;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      fill();
+      return inFlight > 0;
+    }
+
+    @Override
+    public U next() {
+      if (!hasNext()) throw new NoSuchElementException();
+
+      CompletableFuture<U> call;
+      try {
+        call = completed.take();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new QueryException("Interrupted while waiting for an asynchronous projection");
+      }
+
+      inFlight--;
+      try {
+        return call.join();
+      } catch (CompletionException ex) {
+        throw rethrow(ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.javalinq.iterators;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.implementations.QList;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * The source in consecutive lists of 'size' items, the last one possibly shorter.
+ * A QList source is split into subList views without copying; any other source is
+ * read into a new list per batch, so batches can be kept.
+ */
+public class BatchIterable<T> implements QueryOperator<QList<T>> {
+  private final QIterable<T> source;
+  private final int size;
+
+  public BatchIterable(QIterable<T> source, int size) {
+    if (size <= 0) {
+      throw new QueryException("Batch size must be positive, was %s", size);
+    }
+
+    this.source = source;
+    this.size = size;
+  }
+
+  @Override
+  public String operatorName() {
+    return "Batch(" + size + ")";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<QList<T>> withSources(List<Iterable<?>> sources) {
+    return new BatchIterable<>((QIterable<T>) sources.get(0), size);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<QList<T>> action) {
+    if (source instanceof QList) {
+      QList<T> list = (QList<T>) source;
+      for (int from = 0, count = list.size(); from < count; from += size) {
+        if (!action.test(list.subList(from, Math.min(count, from + size)))) return false;
+      }
+
+      return true;
+    }
+
+    Filling<T> batch = new Filling<>();
+    boolean isComplete = source.forEachWhile(item -> {
+      batch.items.add(item);
+      if (batch.items.size() < size) return true;
+
+      QList<T> full = batch.items;
+      batch.items = new QList<>();
+      return action.test(full);
+    });
+
+    return isComplete && (!batch.items.any() || action.test(batch.items));
+  }
+
+  // The batch being filled, which the lambda above replaces when it's full.
+  private static class Filling<T> {
+    private QList<T> items = new QList<>();
+  }
+
+  @Override
+  public Iterator<QList<T>> iterator() {
+    if (source instanceof QList) {
+      QList<T> list = (QList<T>) source;
+      return new RangeIterable<>(index -> list.subList(index * size, Math.min(list.size(), (index + 1) * size)),
+        0, (list.size() + size - 1) / size).iterator();
+    }
+
+    final Iterator<T> iterator = source.iterator();
+    return new Iterator<QList<T>>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public QList<T> next() {
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+
+        QList<T> batch = new QList<>();
+        while (batch.size() < size && iterator.hasNext()) batch.add(iterator.next());
+        return batch;
+      }
+    };
+  }
+}
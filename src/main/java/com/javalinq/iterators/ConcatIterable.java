@@ -0,0 +1,80 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * The items of one sequence followed by the items of another, without copying either.
+ */
+public class ConcatIterable<T> implements QueryOperator<T> {
+  private final Iterable<T> first;
+  private final Iterable<T> second;
+
+  public ConcatIterable(Iterable<T> first, Iterable<T> second) {
+    this.first = first;
+    this.second = second;
+  }
+
+  @Override
+  public String operatorName() {
+    return "Concat";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(first, second);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return new ConcatIterable<>((Iterable<T>) sources.get(0), (Iterable<T>) sources.get(1));
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    return PushIteration.forEachWhile(first, action) && PushIteration.forEachWhile(second, action);
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+      private Iterator<T> current = first.iterator();
+      private boolean isOnSecond = false;
+
+      @Override
+      public boolean hasNext() {
+        if (current.hasNext()) return true;
+        if (isOnSecond) return false;
+
+        current = second.iterator();
+        isOnSecond = true;
+        return current.hasNext();
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+      }
+    };
+  }
+
+  @Override
+  public long count() {
+    return countOf(first) + countOf(second);
+  }
+
+  private static <T> long countOf(Iterable<T> items) {
+    if (items instanceof QIterable) return ((QIterable<T>) items).count();
+
+    long count = 0;
+    for (T item : items) count++;
+    return count;
+  }
+}
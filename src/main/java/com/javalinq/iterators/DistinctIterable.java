@@ -0,0 +1,52 @@
+package com.javalinq.iterators;
+
+import com.javalinq.implementations.QSet;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The first item for each distinct key, in encounter order. Each iteration starts
+ * with an empty set of seen keys.
+ */
+public class DistinctIterable<T, U> implements QueryOperator<T> {
+  private final QIterable<T> source;
+  private final Function<T, U> onProperty;
+
+  public DistinctIterable(QIterable<T> source, Function<T, U> onProperty) {
+    this.source = source;
+    this.onProperty = onProperty;
+  }
+
+  @Override
+  public String operatorName() {
+    return "Distinct";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return new DistinctIterable<>((QIterable<T>) sources.get(0), onProperty);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    QSet<U> seenItems = new QSet<>();
+    return source.forEachWhile(item -> !seenItems.add(onProperty.apply(item)) || action.test(item));
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    QSet<U> seenItems = new QSet<>();
+    return new WhereIterable<>(source, item -> seenItems.add(onProperty.apply(item))).iterator();
+  }
+}
@@ -0,0 +1,70 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The items of each nested set in turn, pulled one nested set at a time.
+ */
+public class FlattenIterable<T, U> implements QueryOperator<U> {
+  private final Iterable<T> source;
+  private final Function<T, QIterable<U>> onProperty;
+
+  public FlattenIterable(Iterable<T> source, Function<T, QIterable<U>> onProperty) {
+    this.source = source;
+    this.onProperty = onProperty;
+  }
+
+  @Override
+  public String operatorName() {
+    return "Flatten";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<U> withSources(List<Iterable<?>> sources) {
+    return new FlattenIterable<>((Iterable<T>) sources.get(0), onProperty);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<U> action) {
+    return PushIteration.forEachWhile(source, item -> onProperty.apply(item).forEachWhile(action));
+  }
+
+  @Override
+  public Iterator<U> iterator() {
+    final Iterator<T> outer = source.iterator();
+
+    return new Iterator<U>() {
+      private Iterator<U> current = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        while (!current.hasNext()) {
+          if (!outer.hasNext()) return false;
+          current = onProperty.apply(outer.next()).iterator();
+        }
+
+        return true;
+      }
+
+      @Override
+      public U next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+      }
+    };
+  }
+}
@@ -0,0 +1,61 @@
+package com.javalinq.iterators;
+
+import com.javalinq.implementations.QList;
+import com.javalinq.implementations.QMap;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Pairs every outer item with the (possibly empty) group of inner items sharing its key.
+ * The inner sequence is loaded into a QMap on the first call to iterator(), then the outer
+ * sequence is streamed in order.
+ */
+public class GroupJoinIterable<T, I, K, R> implements QueryOperator<R> {
+  private final QIterable<T> outer;
+  private final Iterable<I> inner;
+  private final Function<T, K> outerKey;
+  private final Function<I, K> innerKey;
+  private final BiFunction<T, QIterable<I>, R> resultSelector;
+
+  public GroupJoinIterable(QIterable<T> outer, Iterable<I> inner, Function<T, K> outerKey, Function<I, K> innerKey,
+                           BiFunction<T, QIterable<I>, R> resultSelector) {
+    this.outer = outer;
+    this.inner = inner;
+    this.outerKey = outerKey;
+    this.innerKey = innerKey;
+    this.resultSelector = resultSelector;
+  }
+
+  @Override
+  public String operatorName() {
+    return "GroupJoin";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(outer, inner);
+  }
+
+  @Override
+  public QIterable<R> withSources(List<Iterable<?>> sources) {
+    return new GroupJoinIterable<>((QIterable<T>) sources.get(0), (Iterable<I>) sources.get(1), outerKey, innerKey, resultSelector);
+  }
+
+  @Override
+  public Iterator<R> iterator() {
+    final QMap<K, QList<I>> table = JoinIterable.buildTable(inner, innerKey);
+    final QList<I> empty = new QList<>();
+
+    return new MapIterable<T, R>(outer, item -> {
+      K key = outerKey.apply(item);
+      QList<I> group = (key == null) ? empty : table.getOrDefault(key, empty);
+      return resultSelector.apply(item, group);
+    }).iterator();
+  }
+}
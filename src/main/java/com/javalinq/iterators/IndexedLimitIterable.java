@@ -0,0 +1,74 @@
+package com.javalinq.iterators;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * skip/take over a random access source: the offset is applied to the index, so skipped
+ * items are never visited. The bounds are worked out from the source's size each time
+ * the query is read.
+ */
+public class IndexedLimitIterable<T> extends LimitIterable<T> implements IndexedIterable<T> {
+  private final IndexedIterable<T> source;
+
+  public IndexedLimitIterable(IndexedIterable<T> source, int skip, int take) {
+    super(source, skip, take);
+    this.source = source;
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return LimitIterable.of((QIterable<T>) sources.get(0), skip, take);
+  }
+
+  private int from() {
+    return Math.min(skip, source.size());
+  }
+
+  @Override
+  public int size() {
+    int size = source.size();
+    return Math.min(size - Math.min(skip, size), take);
+  }
+
+  @Override
+  public long count() {
+    return size();
+  }
+
+  @Override
+  public T get(int index) {
+    if (index < 0 || index >= size()) {
+      throw new QueryException("Index %s is out of range", index);
+    }
+
+    return source.get(from() + index);
+  }
+
+  @Override
+  public IndexedIterable<T> range(int from, int to) {
+    if (from < 0 || to > size() || from > to) {
+      throw new QueryException("Range [%s, %s) is out of range", from, to);
+    }
+
+    int offset = from();
+    return source.range(offset + from, offset + to);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    int from = from();
+    return source.range(from, from + size()).forEachWhile(action);
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    int from = from();
+    return source.range(from, from + size()).iterator();
+  }
+}
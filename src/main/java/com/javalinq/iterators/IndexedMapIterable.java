@@ -0,0 +1,27 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.IndexedIterable;
+
+import java.util.function.Function;
+
+/**
+ * A projection over a random access source. Only the items that are asked for get projected.
+ */
+public class IndexedMapIterable<T, U> extends MapIterable<T, U> implements IndexedIterable<U> {
+  private final IndexedIterable<T> source;
+
+  public IndexedMapIterable(IndexedIterable<T> source, Function<T, U> projection) {
+    super(source, projection);
+    this.source = source;
+  }
+
+  @Override
+  public U get(int index) {
+    return projection.apply(source.get(index));
+  }
+
+  @Override
+  public int size() {
+    return source.size();
+  }
+}
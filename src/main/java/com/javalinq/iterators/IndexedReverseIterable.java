@@ -0,0 +1,31 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.IndexedIterable;
+
+/**
+ * reverse over a random access source: positions are mirrored onto the source, so
+ * nothing is buffered and get(int) stays constant time.
+ */
+public class IndexedReverseIterable<T> extends ReverseIterable<T> implements IndexedIterable<T> {
+  private final IndexedIterable<T> source;
+
+  public IndexedReverseIterable(IndexedIterable<T> source) {
+    super(source);
+    this.source = source;
+  }
+
+  @Override
+  protected IndexedIterable<T> items() {
+    return source;
+  }
+
+  @Override
+  public T get(int index) {
+    return source.get(source.size() - 1 - index);
+  }
+
+  @Override
+  public int size() {
+    return source.size();
+  }
+}
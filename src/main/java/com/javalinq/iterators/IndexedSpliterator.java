@@ -0,0 +1,59 @@
+package com.javalinq.iterators;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * A spliterator over the index range [from, to) of a random access source. It splits
+ * the range in half, so both halves know their exact size.
+ */
+public class IndexedSpliterator<T> implements Spliterator<T> {
+  private final IntFunction<T> accessor;
+  private final int characteristics;
+  private int from;
+  private final int to;
+
+  public IndexedSpliterator(IntFunction<T> accessor, int from, int to, int characteristics) {
+    this.accessor = accessor;
+    this.from = from;
+    this.to = to;
+    this.characteristics = characteristics | Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (from >= to) return false;
+
+    action.accept(accessor.apply(from++));
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super T> action) {
+    int index = from;
+    from = to;
+
+    for (; index < to; index++) action.accept(accessor.apply(index));
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    int middle = (from + to) >>> 1;
+    if (middle <= from) return null;
+
+    Spliterator<T> prefix = new IndexedSpliterator<>(accessor, from, middle, characteristics);
+    from = middle;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return to - from;
+  }
+
+  @Override
+  public int characteristics() {
+    return characteristics;
+  }
+}
@@ -0,0 +1,118 @@
+package com.javalinq.iterators;
+
+import com.javalinq.implementations.QList;
+import com.javalinq.implementations.QMap;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+import com.javalinq.interfaces.SizedIterable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Hash join (inner or left outer). On the first call to iterator() one side is loaded
+ * into a QMap keyed on its join key, then the other side is streamed through it.
+ * An inner join builds on whichever side is smaller when both sizes are known, in
+ * which case results come out in the order of the inner sequence. Otherwise (and always
+ * for a left join) the inner sequence is the build side and results follow the outer
+ * sequence. Null keys never match anything.
+ */
+public class JoinIterable<T, I, K, R> implements QueryOperator<R> {
+  private final QIterable<T> outer;
+  private final Iterable<I> inner;
+  private final Function<T, K> outerKey;
+  private final Function<I, K> innerKey;
+  private final BiFunction<T, I, R> resultSelector;
+  private final boolean isLeftJoin;
+
+  public JoinIterable(QIterable<T> outer, Iterable<I> inner, Function<T, K> outerKey, Function<I, K> innerKey,
+                      BiFunction<T, I, R> resultSelector, boolean isLeftJoin) {
+    this.outer = outer;
+    this.inner = inner;
+    this.outerKey = outerKey;
+    this.innerKey = innerKey;
+    this.resultSelector = resultSelector;
+    this.isLeftJoin = isLeftJoin;
+  }
+
+  @Override
+  public String operatorName() {
+    return isLeftJoin ? "LeftJoin" : "Join";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(outer, inner);
+  }
+
+  @Override
+  public QIterable<R> withSources(List<Iterable<?>> sources) {
+    return new JoinIterable<>((QIterable<T>) sources.get(0), (Iterable<I>) sources.get(1), outerKey, innerKey, resultSelector, isLeftJoin);
+  }
+
+  @Override
+  public Iterator<R> iterator() {
+    if (!isLeftJoin && isSmaller(outer, inner)) {
+      QMap<K, QList<T>> table = buildTable(outer, outerKey);
+      return probe(inner, innerKey, table, (innerItem, outerItem) -> resultSelector.apply(outerItem, innerItem), false);
+    }
+
+    QMap<K, QList<I>> table = buildTable(inner, innerKey);
+    return probe(outer, outerKey, table, resultSelector, isLeftJoin);
+  }
+
+  private static boolean isSmaller(Iterable<?> lhs, Iterable<?> rhs) {
+    return (lhs instanceof SizedIterable)
+      && (rhs instanceof SizedIterable)
+      && ((SizedIterable<?>) lhs).size() < ((SizedIterable<?>) rhs).size();
+  }
+
+  static <B, K> QMap<K, QList<B>> buildTable(Iterable<B> items, Function<B, K> onKey) {
+    QMap<K, QList<B>> table = new QMap<>();
+    for (B item : items) {
+      K key = onKey.apply(item);
+      if (key != null) table.computeIfAbsent(key, missing -> new QList<>()).add(item);
+    }
+
+    return table;
+  }
+
+  private static <P, B, K, R> Iterator<R> probe(Iterable<P> probeSide, Function<P, K> probeKey, QMap<K, QList<B>> table,
+                                                BiFunction<P, B, R> emit, boolean emitUnmatched) {
+    final Iterator<P> probes = probeSide.iterator();
+    final QList<B> unmatched = new QList<>();
+    unmatched.add((B) null);
+
+    return new Iterator<R>() {
+      private P current;
+      private QList<B> matches;
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        while (matches == null || index >= matches.size()) {
+          if (!probes.hasNext()) return false;
+
+          current = probes.next();
+          K key = probeKey.apply(current);
+          matches = (key == null) ? null : table.getOrDefault(key, null);
+          index = 0;
+
+          if (matches == null && emitUnmatched) matches = unmatched;
+        }
+
+        return true;
+      }
+
+      @Override
+      public R next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return emit.apply(current, matches.get(index++));
+      }
+    };
+  }
+}
@@ -0,0 +1,138 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+import com.javalinq.interfaces.SizedIterable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Skips the first 'skip' items of the source and returns at most 'take' of the rest
+ * (skip, take and page). The source stops being read as soon as the last item is handed
+ * out. of() pushes the limit down where it can: limits of limits are folded into one,
+ * a limit of a projection is moved under it so skipped items are never projected, and
+ * random access sources are read from the offset without walking the skipped items.
+ */
+public class LimitIterable<T> implements QueryOperator<T> {
+  protected final QIterable<T> source;
+  protected final int skip;
+  protected final int take;
+
+  protected LimitIterable(QIterable<T> source, int skip, int take) {
+    this.source = source;
+    this.skip = skip;
+    this.take = take;
+  }
+
+  /**
+   * Negative counts are treated as zero. Pass Integer.MAX_VALUE to take everything.
+   */
+  public static <T> QIterable<T> of(QIterable<T> source, int skip, int take) {
+    skip = Math.max(0, skip);
+    take = Math.max(0, take);
+
+    if (source instanceof LimitIterable) {
+      LimitIterable<T> limit = (LimitIterable<T>) source;
+      int skipped = Math.min(skip, limit.take);
+      return of(limit.source, (int) Math.min(Integer.MAX_VALUE, (long) limit.skip + skipped), Math.min(limit.take - skipped, take));
+    }
+
+    if (source instanceof MapIterable) {
+      MapIterable<Object, T> projection = (MapIterable<Object, T>) source;
+      if (projection.iterable instanceof QIterable) {
+        return MapIterable.of(of((QIterable<Object>) projection.iterable, skip, take), projection.projection);
+      }
+    }
+
+    if (source instanceof IndexedIterable) {
+      return new IndexedLimitIterable<>((IndexedIterable<T>) source, skip, take);
+    }
+
+    return new LimitIterable<>(source, skip, take);
+  }
+
+  @Override
+  public String operatorName() {
+    if (take == Integer.MAX_VALUE) return "Skip(" + skip + ")";
+    if (skip == 0) return "Take(" + take + ")";
+    return "Page(" + skip + ", " + take + ")";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return new LimitIterable<>((QIterable<T>) sources.get(0), skip, take);
+  }
+
+  // Positions are counted in a long, so skip + take can't overflow.
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    if (take == 0) return true;
+
+    long end = (long) skip + take;
+    long[] position = { 0 };
+    boolean[] isComplete = { true };
+    source.forEachWhile(item -> {
+      long index = position[0]++;
+      if (index < skip) return true;
+
+      if (!action.test(item)) {
+        isComplete[0] = false;
+        return false;
+      }
+
+      return index + 1 < end;
+    });
+
+    return isComplete[0];
+  }
+
+  @Override
+  public long count() {
+    if (source instanceof SizedIterable) {
+      long remaining = Math.max(0, ((SizedIterable<T>) source).size() - (long) skip);
+      return Math.min(remaining, take);
+    }
+
+    return QueryOperator.super.count();
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    final Iterator<T> iterator = source.iterator();
+    final long end = (long) skip + take;
+
+    return new Iterator<T>() {
+      private long position = 0;
+
+      @Override
+      public boolean hasNext() {
+        if (position >= end) return false;
+
+        while (position < skip && iterator.hasNext()) {
+          iterator.next();
+          position++;
+        }
+
+        return position >= skip && position < end && iterator.hasNext();
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+
+        position++;
+        return iterator.next();
+      }
+    };
+  }
+}
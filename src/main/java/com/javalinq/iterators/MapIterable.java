@@ -1,22 +1,64 @@
 package com.javalinq.iterators;
 
+import com.javalinq.interfaces.IndexedIterable;
 import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+import com.javalinq.interfaces.SizedIterable;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Created by sircodesalot on 14-5-30.
  */
-public class MapIterable<T, U> implements QIterable<U> {
-  private final Function<T, U> projection;
-  private final Iterable<T> iterable;
+public class MapIterable<T, U> implements QueryOperator<U> {
+  protected final Function<T, U> projection;
+  protected final Iterable<T> iterable;
 
   public MapIterable(Iterable<T> iterable, Function<T, U> projection) {
     this.iterable = iterable;
     this.projection = projection;
   }
 
+  @Override
+  public String operatorName() {
+    return "Map";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(iterable);
+  }
+
+  @Override
+  public QIterable<U> withSources(List<Iterable<?>> sources) {
+    return MapIterable.of((Iterable<T>) sources.get(0), projection);
+  }
+
+  /**
+   * Creates the projection, keeping the size and random access of the source where it has them.
+   */
+  public static <T, U> MapIterable<T, U> of(Iterable<T> iterable, Function<T, U> projection) {
+    if (iterable instanceof IndexedIterable) {
+      return new IndexedMapIterable<>((IndexedIterable<T>) iterable, projection);
+    } else if (iterable instanceof SizedIterable) {
+      return new SizedMapIterable<>((SizedIterable<T>) iterable, projection);
+    }
+
+    return new MapIterable<>(iterable, projection);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<U> action) {
+    Function<T, U> projection = this.projection;
+    return PushIteration.forEachWhile(iterable, item -> action.test(projection.apply(item)));
+  }
+
   @Override
   public Iterator<U> iterator() {
     final Iterator<T> iterator = this.iterable.iterator();
@@ -34,4 +76,45 @@ public class MapIterable<T, U> implements QIterable<U> {
       }
     };
   }
+
+  // Splits wherever the source splits. The projection may produce duplicates, nulls or
+  // a different order, so only the size and encounter order characteristics carry over.
+  @Override
+  public Spliterator<U> spliterator() {
+    return new MapSpliterator(this.iterable.spliterator());
+  }
+
+  private class MapSpliterator implements Spliterator<U> {
+    private final Spliterator<T> source;
+
+    public MapSpliterator(Spliterator<T> source) {
+      this.source = source;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super U> action) {
+      return source.tryAdvance(item -> action.accept(projection.apply(item)));
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super U> action) {
+      source.forEachRemaining(item -> action.accept(projection.apply(item)));
+    }
+
+    @Override
+    public Spliterator<U> trySplit() {
+      Spliterator<T> prefix = source.trySplit();
+      return (prefix == null) ? null : new MapSpliterator(prefix);
+    }
+
+    @Override
+    public long estimateSize() {
+      return source.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+      return source.characteristics() & (Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED);
+    }
+  }
 }
@@ -0,0 +1,243 @@
+package com.javalinq.iterators;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Caches the results of a query as they are read, so later reads (by index, by count,
+ * or by another iterator, including from other threads) don't run the query again.
+ * The source is only pulled as far as the furthest reader has got.
+ *
+ * At most 'maxCached' items are kept. If the source turns out to be longer, reads past
+ * that point run the query again from the start rather than growing the cache.
+ *
+ * There's no size() to ask for up front, since knowing it means reading the whole source:
+ * first(), any(), take(n) and the like only pull as many items as they use. Once the cache
+ * is complete, take, skip, page, reverse, last and parallel read it by index, and complete()
+ * gives the cached items as an IndexedIterable.
+ */
+public class MemoizeIterable<T> implements QueryOperator<T> {
+  private static final Object END = new Object();
+  private static final Object OVERFLOW = new Object();
+
+  private final QIterable<T> source;
+  private final int maxCached;
+  private final List<T> buffer = new ArrayList<>();
+  private Iterator<T> shared;
+  private boolean isCapped = false;
+
+  // Once set, the buffer never changes again and can be read without the lock.
+  private volatile boolean isComplete = false;
+
+  public MemoizeIterable(QIterable<T> source) {
+    this(source, Integer.MAX_VALUE);
+  }
+
+  public MemoizeIterable(QIterable<T> source, int maxCached) {
+    this.source = source;
+    this.maxCached = maxCached;
+  }
+
+  @Override
+  public String operatorName() {
+    return (maxCached == Integer.MAX_VALUE) ? "Memoize" : "Memoize(" + maxCached + ")";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return new MemoizeIterable<>((QIterable<T>) sources.get(0), maxCached);
+  }
+
+  /**
+   * The item at the index, pulling from the source until it's cached.
+   * Returns END past the end of the source, or OVERFLOW past the cache limit.
+   */
+  private synchronized Object fetch(int index) {
+    while (buffer.size() <= index) {
+      if (isComplete) return END;
+      if (isCapped) return OVERFLOW;
+
+      if (shared == null) shared = source.iterator();
+      if (!shared.hasNext()) {
+        shared = null;
+        isComplete = true;
+        return END;
+      }
+
+      if (buffer.size() >= maxCached) {
+        shared = null;
+        isCapped = true;
+        return OVERFLOW;
+      }
+
+      buffer.add(shared.next());
+    }
+
+    return buffer.get(index);
+  }
+
+  private Object itemAt(int index) {
+    if (isComplete) {
+      return (index < buffer.size()) ? buffer.get(index) : END;
+    }
+
+    return fetch(index);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    for (int index = 0; ; index++) {
+      Object item = itemAt(index);
+      if (item == END) return true;
+      if (item == OVERFLOW) return rerunFrom(index, action);
+      if (!action.test((T) item)) return false;
+    }
+  }
+
+  // Past the cached prefix: rerun the query and skip what's already been handed out.
+  private boolean rerunFrom(int from, Predicate<T> action) {
+    int[] position = { 0 };
+    return source.forEachWhile(item -> position[0]++ < from || action.test(item));
+  }
+
+  /**
+   * Reads the rest of the source into the cache and returns the cached items, which have a
+   * size and random access. Throws if the source is longer than maxCached.
+   */
+  public IndexedIterable<T> complete() {
+    if (itemAt(Integer.MAX_VALUE) == OVERFLOW) {
+      throw new QueryException("The query holds more than the %s items that can be cached", maxCached);
+    }
+
+    return new RangeIterable<>(buffer::get, 0, buffer.size());
+  }
+
+  // The buffer never changes once complete, so operators built over it now read the same
+  // items as operators over this would later.
+  @Override
+  public QIterable<T> take(int count) {
+    return isComplete ? complete().take(count) : QueryOperator.super.take(count);
+  }
+
+  @Override
+  public QIterable<T> skip(int count) {
+    return isComplete ? complete().skip(count) : QueryOperator.super.skip(count);
+  }
+
+  @Override
+  public QIterable<T> page(int offset, int size) {
+    return isComplete ? complete().page(offset, size) : QueryOperator.super.page(offset, size);
+  }
+
+  @Override
+  public QIterable<T> reverse() {
+    return isComplete ? complete().reverse() : QueryOperator.super.reverse();
+  }
+
+  @Override
+  public ParallelIterable<T> parallel() {
+    return isComplete ? complete().parallel() : QueryOperator.super.parallel();
+  }
+
+  @Override
+  public ParallelIterable<T> parallel(ForkJoinPool pool) {
+    return isComplete ? complete().parallel(pool) : QueryOperator.super.parallel(pool);
+  }
+
+  @Override
+  public T last() {
+    return isComplete ? complete().last() : QueryOperator.super.last();
+  }
+
+  @Override
+  public T lastOrNull() {
+    return isComplete ? complete().lastOrNull() : QueryOperator.super.lastOrNull();
+  }
+
+  @Override
+  public boolean any() {
+    return itemAt(0) != END;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+      private int index = 0;
+      private Object nextItem;
+      private boolean hasFetched = false;
+      private Iterator<T> overflow;
+
+      @Override
+      public boolean hasNext() {
+        if (overflow != null) return overflow.hasNext();
+
+        if (!hasFetched) {
+          nextItem = itemAt(index);
+          hasFetched = true;
+        }
+
+        if (nextItem == OVERFLOW) {
+          // Past the cached prefix: rerun the query and skip what we've already seen.
+          overflow = source.iterator();
+          for (int skipped = 0; skipped < index && overflow.hasNext(); skipped++) overflow.next();
+          return overflow.hasNext();
+        }
+
+        return nextItem != END;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        if (overflow != null) return overflow.next();
+
+        hasFetched = false;
+        index++;
+        return (T) nextItem;
+      }
+    };
+  }
+
+  @Override
+  public T get(int index) {
+    if (index < 0) {
+      throw new QueryException("Index %s is out of range", index);
+    }
+
+    Object item = itemAt(index);
+    if (item == END) {
+      throw new QueryException("Index %s is out of range", index);
+    } else if (item == OVERFLOW) {
+      return source.get(index);
+    }
+
+    return (T) item;
+  }
+
+  @Override
+  public long count() {
+    if (isComplete) return buffer.size();
+    if (itemAt(Integer.MAX_VALUE) == OVERFLOW) return source.count();
+
+    return buffer.size();
+  }
+
+  public boolean isComplete() {
+    return isComplete;
+  }
+}
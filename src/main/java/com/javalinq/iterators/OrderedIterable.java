@@ -0,0 +1,395 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A stable sort of the source by one or more keys (orderBy, thenBy, ...). Keys are
+ * extracted exactly once per item into a column per key, and the sort compares the
+ * columns rather than calling the extractors again. A single int key is packed
+ * together with the item's position into a long[], which sorts without a comparator.
+ *
+ * The sort runs once, the first time the result is read, so take(count) straight
+ * after ordering selects the leading items with a bounded heap instead. Above
+ * PARALLEL_THRESHOLD items the extracted keys are sorted in parallel. Key extractors
+ * only run on several threads when the source is a parallel() query, so orderBy on a
+ * sequential query calls them from the reading thread alone.
+ */
+public class OrderedIterable<T> implements IndexedIterable<T>, QueryOperator<T> {
+  private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  private final QIterable<T> source;
+  private final List<SortKey<T>> keys;
+  private List<T> items;
+
+  private OrderedIterable(QIterable<T> source, List<SortKey<T>> keys) {
+    this.source = source;
+    this.keys = keys;
+  }
+
+  @Override
+  public String operatorName() {
+    return (keys.size() == 1) ? "OrderBy" : "OrderBy(" + keys.size() + " keys)";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return new OrderedIterable<>((QIterable<T>) sources.get(0), keys);
+  }
+
+  public static <T, U extends Comparable> OrderedIterable<T> by(QIterable<T> source, Function<T, U> onProperty, boolean descending) {
+    return new OrderedIterable<>(source, Collections.singletonList(new ObjectKey<>(onProperty, descending)));
+  }
+
+  public static <T> OrderedIterable<T> byInt(QIterable<T> source, ToIntFunction<T> onProperty, boolean descending) {
+    return new OrderedIterable<>(source, Collections.singletonList(new IntKey<>(onProperty, descending)));
+  }
+
+  public static <T> OrderedIterable<T> byLong(QIterable<T> source, ToLongFunction<T> onProperty, boolean descending) {
+    return new OrderedIterable<>(source, Collections.singletonList(new LongKey<>(onProperty, descending)));
+  }
+
+  public static <T> OrderedIterable<T> byDouble(QIterable<T> source, ToDoubleFunction<T> onProperty, boolean descending) {
+    return new OrderedIterable<>(source, Collections.singletonList(new DoubleKey<>(onProperty, descending)));
+  }
+
+  public <U extends Comparable> OrderedIterable<T> thenBy(Function<T, U> onProperty) {
+    return this.then(new ObjectKey<>(onProperty, false));
+  }
+
+  public <U extends Comparable> OrderedIterable<T> thenByDescending(Function<T, U> onProperty) {
+    return this.then(new ObjectKey<>(onProperty, true));
+  }
+
+  public OrderedIterable<T> thenByInt(ToIntFunction<T> onProperty) {
+    return this.then(new IntKey<>(onProperty, false));
+  }
+
+  public OrderedIterable<T> thenByIntDescending(ToIntFunction<T> onProperty) {
+    return this.then(new IntKey<>(onProperty, true));
+  }
+
+  public OrderedIterable<T> thenByLong(ToLongFunction<T> onProperty) {
+    return this.then(new LongKey<>(onProperty, false));
+  }
+
+  public OrderedIterable<T> thenByLongDescending(ToLongFunction<T> onProperty) {
+    return this.then(new LongKey<>(onProperty, true));
+  }
+
+  public OrderedIterable<T> thenByDouble(ToDoubleFunction<T> onProperty) {
+    return this.then(new DoubleKey<>(onProperty, false));
+  }
+
+  public OrderedIterable<T> thenByDoubleDescending(ToDoubleFunction<T> onProperty) {
+    return this.then(new DoubleKey<>(onProperty, true));
+  }
+
+  private OrderedIterable<T> then(SortKey<T> key) {
+    List<SortKey<T>> keys = new ArrayList<>(this.keys);
+    keys.add(key);
+    return new OrderedIterable<>(source, keys);
+  }
+
+  /**
+   * The first 'count' items in sorted order.
+   */
+  @Override
+  public QIterable<T> take(int count) {
+    if (isSorted()) {
+      List<T> items = this.items();
+      return new RangeIterable<>(items::get, 0, Math.max(0, Math.min(count, items.size())));
+    }
+
+    if (keys.size() == 1) {
+      SortKey<T> key = keys.get(0);
+      return new TopIterable<>(source, count, key::extract, key::compareExtracted);
+    }
+
+    // Several keys: select on the tuple of keys.
+    return new TopIterable<T, Object[]>(source, count, item -> {
+      Object[] tuple = new Object[keys.size()];
+      for (int index = 0; index < tuple.length; index++) tuple[index] = keys.get(index).extract(item);
+      return tuple;
+    }, (lhs, rhs) -> {
+      for (int index = 0; index < lhs.length; index++) {
+        int comparison = keys.get(index).compareExtracted(lhs[index], rhs[index]);
+        if (comparison != 0) return comparison;
+      }
+
+      return 0;
+    });
+  }
+
+  /**
+   * Selects the first offset + size items with take, rather than sorting everything.
+   */
+  @Override
+  public QIterable<T> page(int offset, int size) {
+    offset = Math.max(0, offset);
+    size = Math.max(0, size);
+    return this.take((int) Math.min(Integer.MAX_VALUE, (long) offset + size)).skip(offset);
+  }
+
+  private synchronized boolean isSorted() {
+    return items != null;
+  }
+
+  private synchronized List<T> items() {
+    if (items == null) {
+      items = sort();
+    }
+
+    return items;
+  }
+
+  private List<T> sort() {
+    List<T> unsorted = new ArrayList<>();
+    for (T item : source) unsorted.add(item);
+
+    int size = unsorted.size();
+    boolean isParallel = size >= PARALLEL_THRESHOLD;
+    boolean isParallelExtraction = isParallel && source instanceof ParallelIterable;
+
+    if (keys.size() == 1 && keys.get(0) instanceof IntKey) {
+      return sortPacked(unsorted, (IntKey<T>) keys.get(0), isParallel, isParallelExtraction);
+    }
+
+    IntBinaryOperator[] columns = new IntBinaryOperator[keys.size()];
+    for (int index = 0; index < columns.length; index++) {
+      columns[index] = keys.get(index).column(unsorted, isParallelExtraction);
+    }
+
+    Integer[] positions = new Integer[size];
+    Arrays.setAll(positions, Integer::valueOf);
+
+    // Falling back to the original position keeps the sort stable.
+    Comparator<Integer> order = (lhs, rhs) -> {
+      for (IntBinaryOperator column : columns) {
+        int comparison = column.applyAsInt(lhs, rhs);
+        if (comparison != 0) return comparison;
+      }
+
+      return Integer.compare(lhs, rhs);
+    };
+
+    if (isParallel) {
+      Arrays.parallelSort(positions, order);
+    } else {
+      Arrays.sort(positions, order);
+    }
+
+    List<T> sorted = new ArrayList<>(size);
+    for (Integer position : positions) sorted.add(unsorted.get(position));
+    return sorted;
+  }
+
+  // Key in the high half, position in the low half: sorting the longs sorts by key, then position.
+  private static <T> List<T> sortPacked(List<T> unsorted, IntKey<T> key, boolean isParallel, boolean isParallelExtraction) {
+    long[] packed = new long[unsorted.size()];
+    ToIntFunction<T> onProperty = key.onProperty;
+    boolean descending = key.descending;
+
+    if (isParallelExtraction) {
+      Arrays.parallelSetAll(packed, index -> pack(onProperty.applyAsInt(unsorted.get(index)), index, descending));
+    } else {
+      Arrays.setAll(packed, index -> pack(onProperty.applyAsInt(unsorted.get(index)), index, descending));
+    }
+
+    if (isParallel) {
+      Arrays.parallelSort(packed);
+    } else {
+      Arrays.sort(packed);
+    }
+
+    List<T> sorted = new ArrayList<>(packed.length);
+    for (long entry : packed) sorted.add(unsorted.get((int) entry));
+    return sorted;
+  }
+
+  private static long pack(int key, int position, boolean descending) {
+    // ~key reverses the order of ints without overflowing.
+    return ((long) (descending ? ~key : key) << 32) | position;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return this.items().iterator();
+  }
+
+  @Override
+  public T get(int index) {
+    return this.items().get(index);
+  }
+
+  @Override
+  public int size() {
+    return this.items().size();
+  }
+
+  private static abstract class SortKey<T> {
+    protected final boolean descending;
+
+    protected SortKey(boolean descending) {
+      this.descending = descending;
+    }
+
+    // Extracts the key of every item (on several threads if asked), returning a comparison of two positions.
+    public abstract IntBinaryOperator column(List<T> items, boolean isParallel);
+
+    // The (boxed) key of a single item, and its comparison, for top-k selection.
+    public abstract Object extract(T item);
+
+    public abstract int compareExtracted(Object lhs, Object rhs);
+  }
+
+  private static class ObjectKey<T> extends SortKey<T> {
+    private final Function<T, ? extends Comparable> onProperty;
+
+    public ObjectKey(Function<T, ? extends Comparable> onProperty, boolean descending) {
+      super(descending);
+      this.onProperty = onProperty;
+    }
+
+    @Override
+    public IntBinaryOperator column(List<T> items, boolean isParallel) {
+      Comparable[] keys = new Comparable[items.size()];
+      if (isParallel) {
+        Arrays.parallelSetAll(keys, index -> onProperty.apply(items.get(index)));
+      } else {
+        Arrays.setAll(keys, index -> onProperty.apply(items.get(index)));
+      }
+
+      return descending
+        ? (lhs, rhs) -> keys[rhs].compareTo(keys[lhs])
+        : (lhs, rhs) -> keys[lhs].compareTo(keys[rhs]);
+    }
+
+    @Override
+    public Object extract(T item) {
+      return onProperty.apply(item);
+    }
+
+    @Override
+    public int compareExtracted(Object lhs, Object rhs) {
+      return descending ? ((Comparable) rhs).compareTo(lhs) : ((Comparable) lhs).compareTo(rhs);
+    }
+  }
+
+  private static class IntKey<T> extends SortKey<T> {
+    private final ToIntFunction<T> onProperty;
+
+    public IntKey(ToIntFunction<T> onProperty, boolean descending) {
+      super(descending);
+      this.onProperty = onProperty;
+    }
+
+    @Override
+    public IntBinaryOperator column(List<T> items, boolean isParallel) {
+      int[] keys = new int[items.size()];
+      if (isParallel) {
+        Arrays.parallelSetAll(keys, index -> onProperty.applyAsInt(items.get(index)));
+      } else {
+        Arrays.setAll(keys, index -> onProperty.applyAsInt(items.get(index)));
+      }
+
+      return descending
+        ? (lhs, rhs) -> Integer.compare(keys[rhs], keys[lhs])
+        : (lhs, rhs) -> Integer.compare(keys[lhs], keys[rhs]);
+    }
+
+    @Override
+    public Object extract(T item) {
+      return onProperty.applyAsInt(item);
+    }
+
+    @Override
+    public int compareExtracted(Object lhs, Object rhs) {
+      return descending ? Integer.compare((Integer) rhs, (Integer) lhs) : Integer.compare((Integer) lhs, (Integer) rhs);
+    }
+  }
+
+  private static class LongKey<T> extends SortKey<T> {
+    private final ToLongFunction<T> onProperty;
+
+    public LongKey(ToLongFunction<T> onProperty, boolean descending) {
+      super(descending);
+      this.onProperty = onProperty;
+    }
+
+    @Override
+    public IntBinaryOperator column(List<T> items, boolean isParallel) {
+      long[] keys = new long[items.size()];
+      if (isParallel) {
+        Arrays.parallelSetAll(keys, index -> onProperty.applyAsLong(items.get(index)));
+      } else {
+        Arrays.setAll(keys, index -> onProperty.applyAsLong(items.get(index)));
+      }
+
+      return descending
+        ? (lhs, rhs) -> Long.compare(keys[rhs], keys[lhs])
+        : (lhs, rhs) -> Long.compare(keys[lhs], keys[rhs]);
+    }
+
+    @Override
+    public Object extract(T item) {
+      return onProperty.applyAsLong(item);
+    }
+
+    @Override
+    public int compareExtracted(Object lhs, Object rhs) {
+      return descending ? Long.compare((Long) rhs, (Long) lhs) : Long.compare((Long) lhs, (Long) rhs);
+    }
+  }
+
+  private static class DoubleKey<T> extends SortKey<T> {
+    private final ToDoubleFunction<T> onProperty;
+
+    public DoubleKey(ToDoubleFunction<T> onProperty, boolean descending) {
+      super(descending);
+      this.onProperty = onProperty;
+    }
+
+    @Override
+    public IntBinaryOperator column(List<T> items, boolean isParallel) {
+      double[] keys = new double[items.size()];
+      if (isParallel) {
+        Arrays.parallelSetAll(keys, index -> onProperty.applyAsDouble(items.get(index)));
+      } else {
+        Arrays.setAll(keys, index -> onProperty.applyAsDouble(items.get(index)));
+      }
+
+      return descending
+        ? (lhs, rhs) -> Double.compare(keys[rhs], keys[lhs])
+        : (lhs, rhs) -> Double.compare(keys[lhs], keys[rhs]);
+    }
+
+    @Override
+    public Object extract(T item) {
+      return onProperty.applyAsDouble(item);
+    }
+
+    @Override
+    public int compareExtracted(Object lhs, Object rhs) {
+      return descending ? Double.compare((Double) rhs, (Double) lhs) : Double.compare((Double) lhs, (Double) rhs);
+    }
+  }
+}
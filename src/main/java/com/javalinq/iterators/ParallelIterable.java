@@ -0,0 +1,373 @@
+package com.javalinq.iterators;
+
+import com.javalinq.implementations.QList;
+import com.javalinq.implementations.QMap;
+import com.javalinq.implementations.QSet;
+import com.javalinq.interfaces.Aggregator;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.Reducer;
+import com.javalinq.tools.Aggregators;
+import com.javalinq.tools.CompensatedSum;
+import com.javalinq.tools.ExactSum;
+import com.javalinq.tools.HeavyHitters;
+import com.javalinq.tools.HyperLogLog;
+import com.javalinq.tools.QuantileSketch;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A query that runs its where/map stages and terminal aggregates on a fork-join pool.
+ * The source is split into index ranges, every range runs the stages as an ordinary
+ * sequential query, and the partial results are merged left to right so encounter
+ * order is kept. Iterating the query directly (or calling any operator that isn't
+ * overridden here) falls back to the sequential pipeline.
+ *
+ * Predicates and projections passed to a parallel query must be safe to call from
+ * several threads at once.
+ */
+public class ParallelIterable<T> implements QIterable<T> {
+  private static final int MINIMUM_SEGMENT_SIZE = 1024;
+
+  private final Pipeline<?, T> pipeline;
+  private final ForkJoinPool pool;
+
+  public ParallelIterable(QIterable<T> source, ForkJoinPool pool) {
+    this(new Pipeline<T, T>(source, segment -> segment), pool);
+  }
+
+  private ParallelIterable(Pipeline<?, T> pipeline, ForkJoinPool pool) {
+    this.pipeline = pipeline;
+    this.pool = pool;
+  }
+
+  public ForkJoinPool pool() {
+    return this.pool;
+  }
+
+  @Override
+  public ParallelIterable<T> parallel() {
+    return this;
+  }
+
+  @Override
+  public ParallelIterable<T> parallel(ForkJoinPool pool) {
+    return new ParallelIterable<>(this.pipeline, pool);
+  }
+
+  @Override
+  public QIterable<T> sequential() {
+    return this.pipeline.sequential();
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return this.sequential().iterator();
+  }
+
+  @Override
+  public ParallelIterable<T> where(Predicate<T> predicate) {
+    return new ParallelIterable<>(this.pipeline.then(segment -> segment.where(predicate)), pool);
+  }
+
+  @Override
+  public <U> ParallelIterable<U> map(Function<T, U> projection) {
+    return new ParallelIterable<>(this.pipeline.then(segment -> segment.map(projection)), pool);
+  }
+
+  @Override
+  public QIterable<T> distinct() {
+    ParallelIterable<T> self = this;
+    QIterable<T> distinctItems = new QIterable<T>() {
+      @Override
+      public Iterator<T> iterator() {
+        // Each segment keeps its first occurrences, merging left to right keeps
+        // the first occurrence overall.
+        return self.evaluate(segment -> {
+          LinkedHashSet<T> seenItems = new LinkedHashSet<>();
+          for (T item : segment) seenItems.add(item);
+          return seenItems;
+        }, (lhs, rhs) -> {
+          lhs.addAll(rhs);
+          return lhs;
+        }).iterator();
+      }
+    };
+
+    return new ParallelIterable<>(distinctItems, pool);
+  }
+
+  @Override
+  public long count() {
+    return this.evaluate(QIterable::count, Long::sum);
+  }
+
+  @Override
+  public double sum(Function<T, Double> onProperty) {
+    return this.evaluate(segment -> segment.sum(onProperty), Double::sum);
+  }
+
+  @Override
+  public double avg(Function<T, Double> onProperty) {
+    double[] totals = this.evaluate(segment -> {
+      double[] sumAndCount = new double[2];
+      for (T item : segment) {
+        sumAndCount[0] += onProperty.apply(item);
+        sumAndCount[1]++;
+      }
+
+      return sumAndCount;
+    }, (lhs, rhs) -> new double[] { lhs[0] + rhs[0], lhs[1] + rhs[1] });
+
+    return totals[0] / totals[1];
+  }
+
+  @Override
+  public <U extends Comparable> T max(Function<T, U> onProperty) {
+    return this.evaluate(segment -> segment.max(onProperty), (lhs, rhs) ->
+      choose(lhs, rhs, () -> onProperty.apply(rhs).compareTo(onProperty.apply(lhs)) > 0));
+  }
+
+  @Override
+  public <U extends Comparable> T min(Function<T, U> onProperty) {
+    return this.evaluate(segment -> segment.min(onProperty), (lhs, rhs) ->
+      choose(lhs, rhs, () -> onProperty.apply(rhs).compareTo(onProperty.apply(lhs)) < 0));
+  }
+
+  @Override
+  public long sumInt(ToIntFunction<T> onProperty) {
+    return this.evaluate(segment -> segment.sumInt(onProperty), Long::sum);
+  }
+
+  @Override
+  public long sumLong(ToLongFunction<T> onProperty) {
+    return this.evaluate(segment -> segment.sumLong(onProperty), Long::sum);
+  }
+
+  @Override
+  public double sumDouble(ToDoubleFunction<T> onProperty) {
+    return this.compensatedSum(onProperty).value();
+  }
+
+  @Override
+  public double avgInt(ToIntFunction<T> onProperty) {
+    return this.exactSum(item -> onProperty.applyAsInt(item)).average();
+  }
+
+  @Override
+  public double avgLong(ToLongFunction<T> onProperty) {
+    return this.exactSum(onProperty).average();
+  }
+
+  @Override
+  public double avgDouble(ToDoubleFunction<T> onProperty) {
+    return this.compensatedSum(onProperty).average();
+  }
+
+  @Override
+  public T maxByInt(ToIntFunction<T> onProperty) {
+    return this.evaluate(segment -> segment.maxByInt(onProperty), (lhs, rhs) ->
+      choose(lhs, rhs, () -> onProperty.applyAsInt(rhs) > onProperty.applyAsInt(lhs)));
+  }
+
+  @Override
+  public T maxByLong(ToLongFunction<T> onProperty) {
+    return this.evaluate(segment -> segment.maxByLong(onProperty), (lhs, rhs) ->
+      choose(lhs, rhs, () -> onProperty.applyAsLong(rhs) > onProperty.applyAsLong(lhs)));
+  }
+
+  @Override
+  public T maxByDouble(ToDoubleFunction<T> onProperty) {
+    return this.evaluate(segment -> segment.maxByDouble(onProperty), (lhs, rhs) ->
+      choose(lhs, rhs, () -> Double.compare(onProperty.applyAsDouble(rhs), onProperty.applyAsDouble(lhs)) > 0));
+  }
+
+  @Override
+  public T minByInt(ToIntFunction<T> onProperty) {
+    return this.evaluate(segment -> segment.minByInt(onProperty), (lhs, rhs) ->
+      choose(lhs, rhs, () -> onProperty.applyAsInt(rhs) < onProperty.applyAsInt(lhs)));
+  }
+
+  @Override
+  public T minByLong(ToLongFunction<T> onProperty) {
+    return this.evaluate(segment -> segment.minByLong(onProperty), (lhs, rhs) ->
+      choose(lhs, rhs, () -> onProperty.applyAsLong(rhs) < onProperty.applyAsLong(lhs)));
+  }
+
+  @Override
+  public T minByDouble(ToDoubleFunction<T> onProperty) {
+    return this.evaluate(segment -> segment.minByDouble(onProperty), (lhs, rhs) ->
+      choose(lhs, rhs, () -> Double.compare(onProperty.applyAsDouble(rhs), onProperty.applyAsDouble(lhs)) < 0));
+  }
+
+  /**
+   * Each segment aggregates into its own map, and the partial maps are merged pairwise.
+   */
+  @Override
+  public <K, A, R> QMap<K, R> groupBy(Function<T, K> onKey, Aggregator<T, A, R> aggregator) {
+    QMap<K, A> groups = this.evaluate(segment -> segment.aggregateBy(onKey, aggregator::create, aggregator::accumulate),
+      (lhs, rhs) -> {
+        rhs.forEachEntry((key, accumulator) -> lhs.merge(key, accumulator, aggregator::merge));
+        return lhs;
+      });
+
+    return Aggregators.finish(groups, aggregator);
+  }
+
+  /**
+   * Parallel reduce. Each segment is folded starting from the identity and the partial
+   * results are joined with the combiner, so the identity must not change the result
+   * when combined (0 for sums, an empty collection for collects, etc).
+   */
+  public <U> U reduce(U identity, Reducer<T, U> reducer, BinaryOperator<U> combiner) {
+    return this.evaluate(segment -> segment.reduce(identity, reducer), combiner);
+  }
+
+  @Override
+  public QList<T> toList() {
+    return this.evaluate(QIterable::toList, (lhs, rhs) -> {
+      lhs.add(rhs);
+      return lhs;
+    });
+  }
+
+  @Override
+  public QSet<T> toSet() {
+    return this.evaluate(QIterable::toSet, (lhs, rhs) -> {
+      lhs.add(rhs);
+      return lhs;
+    });
+  }
+
+  /**
+   * Each segment fills its own sketch, and the sketches are merged pairwise.
+   */
+  @Override
+  public <U> HyperLogLog toHyperLogLog(Function<T, U> onProperty, int precision) {
+    return this.evaluate(segment -> segment.toHyperLogLog(onProperty, precision), (lhs, rhs) -> {
+      lhs.merge(rhs);
+      return lhs;
+    });
+  }
+
+  @Override
+  public QuantileSketch toQuantileSketch(ToDoubleFunction<T> onProperty) {
+    return this.evaluate(segment -> segment.toQuantileSketch(onProperty), (lhs, rhs) -> {
+      lhs.merge(rhs);
+      return lhs;
+    });
+  }
+
+  @Override
+  public <K> HeavyHitters<K> toHeavyHitters(Function<T, K> onKey, int capacity) {
+    return this.evaluate(segment -> segment.toHeavyHitters(onKey, capacity), (lhs, rhs) -> {
+      lhs.merge(rhs);
+      return lhs;
+    });
+  }
+
+  private ExactSum exactSum(ToLongFunction<T> onProperty) {
+    return this.evaluate(segment -> {
+      ExactSum sum = new ExactSum();
+      for (T item : segment) sum.add(onProperty.applyAsLong(item));
+      return sum;
+    }, (lhs, rhs) -> {
+      lhs.merge(rhs);
+      return lhs;
+    });
+  }
+
+  private CompensatedSum compensatedSum(ToDoubleFunction<T> onProperty) {
+    return this.evaluate(segment -> {
+      CompensatedSum sum = new CompensatedSum();
+      for (T item : segment) sum.add(onProperty.applyAsDouble(item));
+      return sum;
+    }, (lhs, rhs) -> {
+      lhs.merge(rhs);
+      return lhs;
+    });
+  }
+
+  // Empty segments come back as null. Ties go to the left segment, matching the sequential version.
+  private static <T> T choose(T lhs, T rhs, BooleanSupplier rhsWins) {
+    if (lhs == null) return rhs;
+    if (rhs == null) return lhs;
+
+    return rhsWins.getAsBoolean() ? rhs : lhs;
+  }
+
+  private <R> R evaluate(Function<QIterable<T>, R> leaf, BinaryOperator<R> merge) {
+    return this.pipeline.evaluate(pool, leaf, merge);
+  }
+
+  private static class Pipeline<S, T> {
+    private final QIterable<S> source;
+    private final Function<QIterable<S>, QIterable<T>> stages;
+
+    public Pipeline(QIterable<S> source, Function<QIterable<S>, QIterable<T>> stages) {
+      this.source = source;
+      this.stages = stages;
+    }
+
+    public <U> Pipeline<S, U> then(Function<QIterable<T>, QIterable<U>> stage) {
+      return new Pipeline<>(source, stages.andThen(stage));
+    }
+
+    public QIterable<T> sequential() {
+      return stages.apply(source);
+    }
+
+    public <R> R evaluate(ForkJoinPool pool, Function<QIterable<T>, R> leaf, BinaryOperator<R> merge) {
+      // Anything without random access is buffered once so it can be split by index.
+      IndexedIterable<S> items = (source instanceof IndexedIterable) ? (IndexedIterable<S>) source : source.toList();
+      int size = items.size();
+      int segmentSize = Math.max(MINIMUM_SEGMENT_SIZE, size / (pool.getParallelism() * 4));
+
+      return pool.invoke(new SegmentTask<>(items, 0, size, segmentSize, stages.andThen(leaf), merge));
+    }
+  }
+
+  private static class SegmentTask<S, R> extends RecursiveTask<R> {
+    private final IndexedIterable<S> items;
+    private final int from;
+    private final int to;
+    private final int segmentSize;
+    private final Function<QIterable<S>, R> leaf;
+    private final BinaryOperator<R> merge;
+
+    public SegmentTask(IndexedIterable<S> items, int from, int to, int segmentSize,
+                       Function<QIterable<S>, R> leaf, BinaryOperator<R> merge) {
+      this.items = items;
+      this.from = from;
+      this.to = to;
+      this.segmentSize = segmentSize;
+      this.leaf = leaf;
+      this.merge = merge;
+    }
+
+    @Override
+    protected R compute() {
+      if (to - from <= segmentSize) {
+        return leaf.apply(items.range(from, to));
+      }
+
+      int middle = (from + to) >>> 1;
+      SegmentTask<S, R> lhs = new SegmentTask<>(items, from, middle, segmentSize, leaf, merge);
+      SegmentTask<S, R> rhs = new SegmentTask<>(items, middle, to, segmentSize, leaf, merge);
+
+      lhs.fork();
+      R rhsResult = rhs.compute();
+      return merge.apply(lhs.join(), rhsResult);
+    }
+  }
+}
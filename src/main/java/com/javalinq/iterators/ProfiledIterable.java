@@ -0,0 +1,214 @@
+package com.javalinq.iterators;
+
+import com.javalinq.implementations.QList;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+import com.javalinq.interfaces.SizedIterable;
+import com.javalinq.tools.OperatorProfile;
+import com.javalinq.tools.QueryPlan;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A copy of a query with every operator wrapped in a counter, as returned by profile().
+ * The wrapped operators record the rows they produce, and the wall time and bytes allocated
+ * (on the calling thread) inside their iterators. The original query is left untouched, so
+ * queries that aren't profiled pay nothing for this.
+ *
+ * Each wrapper offers what the operator it wraps offers (forEachWhile, and size and get(int)
+ * where the operator has them), so a profiled query runs the same plan as the original: a
+ * count() that the original answers from sizes reads no rows when profiled either. Time spent
+ * in the consumer of a forEachWhile is left out of the operator's own time, as it is when the
+ * operator is read through its iterator. A memoized stage starts with an empty cache. Counters
+ * are not synchronized, so read a profiled query from one thread at a time.
+ */
+public class ProfiledIterable<T> implements QIterable<T> {
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+  private static final boolean IS_ALLOCATION_MEASURED = THREADS instanceof com.sun.management.ThreadMXBean
+    && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemoryEnabled();
+
+  private final String name;
+  private final Iterable<T> target;
+  private final List<ProfiledIterable<?>> inputs;
+  private final Consumer<OperatorProfile> onComplete;
+  private long rowsOut = 0;
+  private long wallNanos = 0;
+  private long allocatedBytes = 0;
+
+  protected ProfiledIterable(String name, Iterable<T> target, List<ProfiledIterable<?>> inputs,
+                           Consumer<OperatorProfile> onComplete) {
+    this.name = name;
+    this.target = target;
+    this.inputs = inputs;
+    this.onComplete = onComplete;
+  }
+
+  /**
+   * @param onComplete called with the metrics each time the query is read to the end (may be null).
+   */
+  public static <T> ProfiledIterable<T> of(Iterable<T> query, Consumer<OperatorProfile> onComplete) {
+    if (query instanceof QueryOperator) {
+      QueryOperator<T> operator = (QueryOperator<T>) query;
+      List<ProfiledIterable<?>> inputs = new ArrayList<>();
+      for (Iterable<?> source : operator.sources()) inputs.add(ProfiledIterable.of(source, null));
+
+      return wrap(operator.operatorName(), operator.withSources(new ArrayList<>(inputs)), inputs, onComplete);
+    }
+
+    return wrap(QueryPlan.describe(query), query, new ArrayList<>(), onComplete);
+  }
+
+  // Operators rebuilt over profiled inputs check their inputs for these, so each wrapper
+  // keeps the capabilities of what it wraps.
+  private static <T> ProfiledIterable<T> wrap(String name, Iterable<T> target, List<ProfiledIterable<?>> inputs,
+                                              Consumer<OperatorProfile> onComplete) {
+    if (target instanceof IndexedIterable) {
+      return new IndexedProfiledIterable<>(name, (IndexedIterable<T>) target, inputs, onComplete);
+    } else if (target instanceof SizedIterable) {
+      return new SizedProfiledIterable<>(name, (SizedIterable<T>) target, inputs, onComplete);
+    }
+
+    return new ProfiledIterable<>(name, target, inputs, onComplete);
+  }
+
+  /**
+   * The counters so far, for this operator and everything below it.
+   */
+  public OperatorProfile metrics() {
+    QList<OperatorProfile> inputMetrics = new QList<>();
+    for (ProfiledIterable<?> input : inputs) inputMetrics.add(input.metrics());
+
+    return new OperatorProfile(name, inputMetrics, rowsOut, wallNanos,
+      IS_ALLOCATION_MEASURED ? allocatedBytes : -1);
+  }
+
+  public void reset() {
+    rowsOut = 0;
+    wallNanos = 0;
+    allocatedBytes = 0;
+    for (ProfiledIterable<?> input : inputs) input.reset();
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    long startNanos = System.nanoTime();
+    long startBytes = allocatedBytes();
+    Iterator<T> iterator = target.iterator();
+    record(startNanos, startBytes);
+
+    return new Iterator<T>() {
+      private boolean isReported = false;
+
+      @Override
+      public boolean hasNext() {
+        long startNanos = System.nanoTime();
+        long startBytes = allocatedBytes();
+        boolean hasNext = iterator.hasNext();
+        record(startNanos, startBytes);
+
+        if (!hasNext && !isReported && onComplete != null) {
+          isReported = true;
+          onComplete.accept(metrics());
+        }
+
+        return hasNext;
+      }
+
+      @Override
+      public T next() {
+        long startNanos = System.nanoTime();
+        long startBytes = allocatedBytes();
+        T item = iterator.next();
+        record(startNanos, startBytes);
+
+        rowsOut++;
+        return item;
+      }
+    };
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    if (!(target instanceof QIterable)) return QIterable.super.forEachWhile(action);
+
+    // Time and allocations inside 'action' belong to the consumer, not to this operator.
+    long[] consumer = { 0, 0 };
+    long startNanos = System.nanoTime();
+    long startBytes = allocatedBytes();
+    boolean isComplete = ((QIterable<T>) target).forEachWhile(item -> {
+      rowsOut++;
+      long actionNanos = System.nanoTime();
+      long actionBytes = allocatedBytes();
+      boolean shouldContinue = action.test(item);
+      consumer[0] += System.nanoTime() - actionNanos;
+      consumer[1] += allocatedBytes() - actionBytes;
+      return shouldContinue;
+    });
+    record(startNanos + consumer[0], startBytes + consumer[1]);
+
+    if (isComplete && onComplete != null) onComplete.accept(metrics());
+    return isComplete;
+  }
+
+  protected T timedGet(IndexedIterable<T> target, int index) {
+    long startNanos = System.nanoTime();
+    long startBytes = allocatedBytes();
+    T item = target.get(index);
+    record(startNanos, startBytes);
+
+    rowsOut++;
+    return item;
+  }
+
+  private void record(long startNanos, long startBytes) {
+    wallNanos += System.nanoTime() - startNanos;
+    allocatedBytes += allocatedBytes() - startBytes;
+  }
+
+  private static long allocatedBytes() {
+    if (!IS_ALLOCATION_MEASURED) return 0;
+    return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static class SizedProfiledIterable<T> extends ProfiledIterable<T> implements SizedIterable<T> {
+    private final SizedIterable<T> target;
+
+    private SizedProfiledIterable(String name, SizedIterable<T> target, List<ProfiledIterable<?>> inputs,
+                                  Consumer<OperatorProfile> onComplete) {
+      super(name, target, inputs, onComplete);
+      this.target = target;
+    }
+
+    @Override
+    public int size() {
+      return target.size();
+    }
+  }
+
+  private static class IndexedProfiledIterable<T> extends ProfiledIterable<T> implements IndexedIterable<T> {
+    private final IndexedIterable<T> target;
+
+    private IndexedProfiledIterable(String name, IndexedIterable<T> target, List<ProfiledIterable<?>> inputs,
+                                    Consumer<OperatorProfile> onComplete) {
+      super(name, target, inputs, onComplete);
+      this.target = target;
+    }
+
+    @Override
+    public int size() {
+      return target.size();
+    }
+
+    @Override
+    public T get(int index) {
+      return timedGet(target, index);
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.javalinq.iterators;
+
+import com.javalinq.implementations.QList;
+import com.javalinq.interfaces.QIterable;
+
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * A QIterable whose items can only be pushed, such as a primitive query mapped back to
+ * objects. Terminals that go through forEachWhile stream straight through, but asking
+ * for an iterator has to run the whole query into a list first.
+ */
+public abstract class PushIterable<T> implements QIterable<T> {
+  @Override
+  public abstract boolean forEachWhile(Predicate<T> action);
+
+  @Override
+  public Iterator<T> iterator() {
+    QList<T> items = new QList<>();
+    this.forEachWhile(item -> {
+      items.add(item);
+      return true;
+    });
+
+    return items.iterator();
+  }
+}
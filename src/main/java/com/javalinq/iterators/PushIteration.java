@@ -0,0 +1,23 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.QIterable;
+
+import java.util.function.Predicate;
+
+/**
+ * forEachWhile for sources that may be plain Iterables.
+ */
+final class PushIteration {
+  private PushIteration() {
+  }
+
+  static <T> boolean forEachWhile(Iterable<T> items, Predicate<T> action) {
+    if (items instanceof QIterable) return ((QIterable<T>) items).forEachWhile(action);
+
+    for (T item : items) {
+      if (!action.test(item)) return false;
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,55 @@
+package com.javalinq.iterators;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.IndexedIterable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * A view over the index range [from, to) of a random access source.
+ */
+public class RangeIterable<T> implements IndexedIterable<T> {
+  private final IntFunction<T> accessor;
+  private final int from;
+  private final int to;
+
+  public RangeIterable(IntFunction<T> accessor, int from, int to) {
+    this.accessor = accessor;
+    this.from = from;
+    this.to = to;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+      private int index = from;
+
+      @Override
+      public boolean hasNext() {
+        return index < to;
+      }
+
+      @Override
+      public T next() {
+        if (index >= to) throw new NoSuchElementException();
+        return accessor.apply(index++);
+      }
+    };
+  }
+
+  @Override
+  public T get(int index) {
+    if (index < 0 || index >= to - from) {
+      throw new QueryException("Index %s is out of range", index);
+    }
+
+    return accessor.apply(from + index);
+  }
+
+  @Override
+  public int size() {
+    return to - from;
+  }
+}
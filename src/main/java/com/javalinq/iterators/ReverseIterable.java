@@ -0,0 +1,92 @@
+package com.javalinq.iterators;
+
+import com.javalinq.implementations.QList;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Reverses a query. Random access sources are read back to front in place (see
+ * IndexedReverseIterable), anything else is buffered into a list once each time the
+ * reversed query is read.
+ */
+public class ReverseIterable<T> implements QueryOperator<T> {
+  protected final QIterable<T> source;
+
+  protected ReverseIterable(QIterable<T> source) {
+    this.source = source;
+  }
+
+  public static <T> QIterable<T> of(QIterable<T> source) {
+    if (source instanceof IndexedIterable) {
+      return new IndexedReverseIterable<>((IndexedIterable<T>) source);
+    }
+
+    return new ReverseIterable<>(source);
+  }
+
+  @Override
+  public String operatorName() {
+    return "Reverse";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return ReverseIterable.of((QIterable<T>) sources.get(0));
+  }
+
+  protected IndexedIterable<T> items() {
+    return source.toList();
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    IndexedIterable<T> items = this.items();
+    for (int index = items.size() - 1; index >= 0; index--) {
+      if (!action.test(items.get(index))) return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    final IndexedIterable<T> items = this.items();
+
+    return new Iterator<T>() {
+      private int index = items.size() - 1;
+
+      @Override
+      public boolean hasNext() {
+        return index >= 0;
+      }
+
+      @Override
+      public T next() {
+        if (index < 0) throw new NoSuchElementException();
+        return items.get(index--);
+      }
+    };
+  }
+
+  @Override
+  public long count() {
+    return source.count();
+  }
+
+  @Override
+  public QIterable<T> reverse() {
+    return source;
+  }
+}
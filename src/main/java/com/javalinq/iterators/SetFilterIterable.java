@@ -0,0 +1,62 @@
+package com.javalinq.iterators;
+
+import com.javalinq.implementations.QSet;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Keeps (intersect) or drops (except) the items of the source found in another set.
+ * The other set is loaded into a QSet when iteration starts (a QSet is used as is),
+ * and the source is streamed through it.
+ */
+public class SetFilterIterable<T> implements QueryOperator<T> {
+  private final QIterable<T> source;
+  private final Iterable<T> other;
+  private final boolean keepMembers;
+
+  public SetFilterIterable(QIterable<T> source, Iterable<T> other, boolean keepMembers) {
+    this.source = source;
+    this.other = other;
+    this.keepMembers = keepMembers;
+  }
+
+  @Override
+  public String operatorName() {
+    return keepMembers ? "Intersect" : "Except";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source, other);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return new SetFilterIterable<>((QIterable<T>) sources.get(0), (Iterable<T>) sources.get(1), keepMembers);
+  }
+
+  public static <T> SetFilterIterable<T> intersect(QIterable<T> source, Iterable<T> other) {
+    return new SetFilterIterable<>(source, other, true);
+  }
+
+  public static <T> SetFilterIterable<T> except(QIterable<T> source, Iterable<T> other) {
+    return new SetFilterIterable<>(source, other, false);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    final QSet<T> members = (other instanceof QSet) ? (QSet<T>) other : new QSet<>(other);
+    return source.forEachWhile(item -> members.contains(item) != keepMembers || action.test(item));
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    final QSet<T> members = (other instanceof QSet) ? (QSet<T>) other : new QSet<>(other);
+    return new WhereIterable<>(source, item -> members.contains(item) == keepMembers).iterator();
+  }
+}
@@ -0,0 +1,22 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.SizedIterable;
+
+import java.util.function.Function;
+
+/**
+ * A projection over a source that knows its size (but can't be indexed).
+ */
+public class SizedMapIterable<T, U> extends MapIterable<T, U> implements SizedIterable<U> {
+  private final SizedIterable<T> source;
+
+  public SizedMapIterable(SizedIterable<T> source, Function<T, U> projection) {
+    super(source, projection);
+    this.source = source;
+  }
+
+  @Override
+  public int size() {
+    return source.size();
+  }
+}
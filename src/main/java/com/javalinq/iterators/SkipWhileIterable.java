@@ -0,0 +1,96 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Everything after the leading items that match the predicate. Once an item fails to
+ * match, the predicate isn't called again.
+ */
+public class SkipWhileIterable<T> implements QueryOperator<T> {
+  private final QIterable<T> source;
+  private final Predicate<T> predicate;
+
+  public SkipWhileIterable(QIterable<T> source, Predicate<T> predicate) {
+    this.source = source;
+    this.predicate = predicate;
+  }
+
+  @Override
+  public String operatorName() {
+    return "SkipWhile";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return new SkipWhileIterable<>((QIterable<T>) sources.get(0), predicate);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    Predicate<T> predicate = this.predicate;
+    boolean[] isSkipping = { true };
+    return source.forEachWhile(item -> {
+      if (isSkipping[0]) {
+        if (predicate.test(item)) return true;
+        isSkipping[0] = false;
+      }
+
+      return action.test(item);
+    });
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    final Iterator<T> iterator = source.iterator();
+
+    return new Iterator<T>() {
+      private boolean isSkipping = true;
+      private boolean hasPending = false;
+      private T pending;
+
+      // Skips the leading matches, holding on to the first item that ends the run.
+      @Override
+      public boolean hasNext() {
+        if (isSkipping) {
+          isSkipping = false;
+          while (iterator.hasNext()) {
+            T item = iterator.next();
+            if (!predicate.test(item)) {
+              pending = item;
+              hasPending = true;
+              break;
+            }
+          }
+        }
+
+        return hasPending || iterator.hasNext();
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+
+        if (hasPending) {
+          T item = pending;
+          hasPending = false;
+          pending = null;
+          return item;
+        }
+
+        return iterator.next();
+      }
+    };
+  }
+}
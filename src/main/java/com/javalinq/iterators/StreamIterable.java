@@ -0,0 +1,45 @@
+package com.javalinq.iterators;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.interfaces.QIterable;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+/**
+ * A QIterable reading straight from a java.util.stream.Stream, without buffering it.
+ * Like the stream itself it can only be read once.
+ */
+public class StreamIterable<T> implements QIterable<T> {
+  private Stream<T> stream;
+
+  public StreamIterable(Stream<T> stream) {
+    this.stream = stream;
+  }
+
+  private synchronized Stream<T> take() {
+    if (stream == null) {
+      throw new QueryException("A query over a stream can only be read once");
+    }
+
+    Stream<T> taken = stream;
+    stream = null;
+    return taken;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return this.take().iterator();
+  }
+
+  @Override
+  public Spliterator<T> spliterator() {
+    return this.take().spliterator();
+  }
+
+  @Override
+  public Stream<T> stream() {
+    return this.take();
+  }
+}
@@ -0,0 +1,90 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * The leading items that match the predicate. The source stops being read at the first
+ * item that doesn't match.
+ */
+public class TakeWhileIterable<T> implements QueryOperator<T> {
+  private final QIterable<T> source;
+  private final Predicate<T> predicate;
+
+  public TakeWhileIterable(QIterable<T> source, Predicate<T> predicate) {
+    this.source = source;
+    this.predicate = predicate;
+  }
+
+  @Override
+  public String operatorName() {
+    return "TakeWhile";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return new TakeWhileIterable<>((QIterable<T>) sources.get(0), predicate);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    Predicate<T> predicate = this.predicate;
+    boolean[] isComplete = { true };
+    source.forEachWhile(item -> {
+      if (!predicate.test(item)) return false;
+
+      if (!action.test(item)) {
+        isComplete[0] = false;
+        return false;
+      }
+
+      return true;
+    });
+
+    return isComplete[0];
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    final Iterator<T> iterator = source.iterator();
+
+    return new Iterator<T>() {
+      private boolean hasUpdated = false;
+      private boolean hasItem = true;
+      private T nextItem;
+
+      @Override
+      public boolean hasNext() {
+        if (hasUpdated || !hasItem) return hasItem;
+
+        hasUpdated = true;
+        if (iterator.hasNext()) {
+          nextItem = iterator.next();
+          if (predicate.test(nextItem)) return true;
+        }
+
+        nextItem = null;
+        return hasItem = false;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+
+        hasUpdated = false;
+        return nextItem;
+      }
+    };
+  }
+}
@@ -0,0 +1,118 @@
+package com.javalinq.iterators;
+
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * The first 'count' items of the source in key order, found with a bounded heap:
+ * O(n log count) time, and only 'count' items are held at once. Items with equal
+ * keys keep their encounter order. The selection runs once, the first time the
+ * result is read.
+ */
+public class TopIterable<T, K> implements IndexedIterable<T>, QueryOperator<T> {
+  private final QIterable<T> source;
+  private final int count;
+  private final Function<T, K> onProperty;
+  private final Comparator<? super K> keyOrder;
+  private List<T> items;
+
+  public TopIterable(QIterable<T> source, int count, Function<T, K> onProperty, Comparator<? super K> keyOrder) {
+    this.source = source;
+    this.count = count;
+    this.onProperty = onProperty;
+    this.keyOrder = keyOrder;
+  }
+
+  @Override
+  public String operatorName() {
+    return "Top(" + count + ")";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(source);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return new TopIterable<>((QIterable<T>) sources.get(0), count, onProperty, keyOrder);
+  }
+
+  private static class Entry<T, K> {
+    private K key;
+    private long sequence;
+    private T item;
+  }
+
+  private synchronized List<T> items() {
+    if (items == null) {
+      items = select();
+    }
+
+    return items;
+  }
+
+  private List<T> select() {
+    if (count <= 0) return new ArrayList<>();
+
+    Comparator<Entry<T, K>> order = (lhs, rhs) -> {
+      int comparison = keyOrder.compare(lhs.key, rhs.key);
+      return (comparison != 0) ? comparison : Long.compare(lhs.sequence, rhs.sequence);
+    };
+
+    // The root of the heap is the entry that would be evicted next.
+    PriorityQueue<Entry<T, K>> heap = new PriorityQueue<>(Math.min(count, 1024), order.reversed());
+    long sequence = 0;
+
+    for (T item : source) {
+      K key = onProperty.apply(item);
+
+      Entry<T, K> entry;
+      if (heap.size() < count) {
+        entry = new Entry<>();
+      } else if (keyOrder.compare(key, heap.peek().key) < 0) {
+        // Later items lose ties, so only a strictly better key displaces the root.
+        entry = heap.poll();
+      } else {
+        sequence++;
+        continue;
+      }
+
+      entry.key = key;
+      entry.sequence = sequence++;
+      entry.item = item;
+      heap.add(entry);
+    }
+
+    List<Entry<T, K>> entries = new ArrayList<>(heap);
+    entries.sort(order);
+
+    List<T> selected = new ArrayList<>(entries.size());
+    for (Entry<T, K> entry : entries) selected.add(entry.item);
+    return selected;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return this.items().iterator();
+  }
+
+  @Override
+  public T get(int index) {
+    return this.items().get(index);
+  }
+
+  @Override
+  public int size() {
+    return this.items().size();
+  }
+}
@@ -2,14 +2,17 @@ package com.javalinq.iterators;
 
 
 import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Predicate;
 
 /**
  * Created by sircodesalot on 14-5-30.
  */
-public class WhereIterable<T> implements QIterable<T> {
+public class WhereIterable<T> implements QueryOperator<T> {
   private final QIterable<T> iterable;
   private final Predicate<T> predicate;
 
@@ -18,6 +21,27 @@ public class WhereIterable<T> implements QIterable<T> {
     this.predicate = predicate;
   }
 
+  @Override
+  public String operatorName() {
+    return "Where";
+  }
+
+  @Override
+  public List<Iterable<?>> sources() {
+    return Arrays.asList(iterable);
+  }
+
+  @Override
+  public QIterable<T> withSources(List<Iterable<?>> sources) {
+    return new WhereIterable<>((QIterable<T>) sources.get(0), predicate);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    Predicate<T> predicate = this.predicate;
+    return iterable.forEachWhile(item -> !predicate.test(item) || action.test(item));
+  }
+
   @Override
   public Iterator<T> iterator() {
     return new WhereIterator(iterable, predicate);
@@ -27,6 +51,7 @@ public class WhereIterable<T> implements QIterable<T> {
     private final Iterator<T> iterator;
     private final Predicate<T> predicate;
     private boolean hasUpdated = false;
+    private boolean hasItem = false;
     private T nextItem;
 
     private WhereIterator(Iterable<T> iterable, Predicate<T> predicate) {
@@ -36,14 +61,17 @@ public class WhereIterable<T> implements QIterable<T> {
 
     @Override
     public boolean hasNext() {
+      // Calling hasNext() again before next() mustn't skip the pending item.
+      if (hasUpdated) return hasItem;
+
       hasUpdated = true;
       while (this.iterator.hasNext()) {
         this.nextItem = iterator.next();
-        if (predicate.test(nextItem)) return true;
+        if (predicate.test(nextItem)) return hasItem = true;
       }
 
       nextItem = null;
-      return false;
+      return hasItem = false;
     }
 
     @Override
@@ -0,0 +1,92 @@
+package com.javalinq.tools;
+
+import com.javalinq.implementations.QList;
+import com.javalinq.implementations.QMap;
+import com.javalinq.interfaces.Aggregator;
+
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Ready made aggregators for groupBy. The counting and summing ones keep a primitive
+ * accumulator per group, so nothing is boxed per item.
+ */
+public class Aggregators {
+  private Aggregators() {
+  }
+
+  public static <T, A, R> Aggregator<T, A, R> of(Supplier<A> create, BiConsumer<A, T> accumulate,
+                                                 BinaryOperator<A> merge, Function<A, R> finish) {
+    return new Aggregator<T, A, R>() {
+      @Override
+      public A create() { return create.get(); }
+
+      @Override
+      public void accumulate(A accumulator, T item) { accumulate.accept(accumulator, item); }
+
+      @Override
+      public A merge(A lhs, A rhs) { return merge.apply(lhs, rhs); }
+
+      @Override
+      public R finish(A accumulator) { return finish.apply(accumulator); }
+    };
+  }
+
+  public static <T> Aggregator<T, long[], Long> count() {
+    return of(() -> new long[1], (total, item) -> total[0]++, Aggregators::addTotals, total -> total[0]);
+  }
+
+  public static <T> Aggregator<T, long[], Long> sumInt(ToIntFunction<T> onProperty) {
+    return of(() -> new long[1], (total, item) -> total[0] += onProperty.applyAsInt(item), Aggregators::addTotals, total -> total[0]);
+  }
+
+  public static <T> Aggregator<T, long[], Long> sumLong(ToLongFunction<T> onProperty) {
+    return of(() -> new long[1], (total, item) -> total[0] += onProperty.applyAsLong(item), Aggregators::addTotals, total -> total[0]);
+  }
+
+  public static <T> Aggregator<T, CompensatedSum, Double> sumDouble(ToDoubleFunction<T> onProperty) {
+    return of(CompensatedSum::new, (sum, item) -> sum.add(onProperty.applyAsDouble(item)), Aggregators::mergeSums, CompensatedSum::value);
+  }
+
+  public static <T> Aggregator<T, ExactSum, Double> avgLong(ToLongFunction<T> onProperty) {
+    return of(ExactSum::new, (sum, item) -> sum.add(onProperty.applyAsLong(item)), (lhs, rhs) -> {
+      lhs.merge(rhs);
+      return lhs;
+    }, ExactSum::average);
+  }
+
+  public static <T> Aggregator<T, CompensatedSum, Double> avgDouble(ToDoubleFunction<T> onProperty) {
+    return of(CompensatedSum::new, (sum, item) -> sum.add(onProperty.applyAsDouble(item)), Aggregators::mergeSums, CompensatedSum::average);
+  }
+
+  public static <T> Aggregator<T, QList<T>, QList<T>> toList() {
+    return of(QList::new, QList::add, (lhs, rhs) -> {
+      lhs.add(rhs);
+      return lhs;
+    }, list -> list);
+  }
+
+  /**
+   * Replaces every accumulator in the map with its finished value.
+   */
+  public static <K, A, R> QMap<K, R> finish(QMap<K, A> groups, Aggregator<?, A, R> aggregator) {
+    QMap<K, R> results = new QMap<>(groups.size());
+    groups.forEachEntry((key, accumulator) -> results.add(key, aggregator.finish(accumulator)));
+    return results;
+  }
+
+  private static long[] addTotals(long[] lhs, long[] rhs) {
+    lhs[0] += rhs[0];
+    return lhs;
+  }
+
+  private static CompensatedSum mergeSums(CompensatedSum lhs, CompensatedSum rhs) {
+    lhs.merge(rhs);
+    return lhs;
+  }
+}
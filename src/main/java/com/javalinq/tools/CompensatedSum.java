@@ -0,0 +1,49 @@
+package com.javalinq.tools;
+
+/**
+ * A running total of doubles using Kahan-Babuska (Neumaier) summation, so
+ * long columns of small values don't lose precision to rounding.
+ */
+public class CompensatedSum {
+  private double sum;
+  private double compensation;
+  private double simpleSum;
+  private long count;
+
+  public void add(double value) {
+    double total = sum + value;
+    if (Math.abs(sum) >= Math.abs(value)) {
+      compensation += (sum - total) + value;
+    } else {
+      compensation += (value - total) + sum;
+    }
+
+    sum = total;
+    simpleSum += value;
+    count++;
+  }
+
+  public void merge(CompensatedSum other) {
+    double simpleSum = this.simpleSum;
+    long count = this.count;
+
+    this.add(other.sum);
+    this.compensation += other.compensation;
+    this.simpleSum = simpleSum + other.simpleSum;
+    this.count = count + other.count;
+  }
+
+  public long count() { return count; }
+
+  public double value() {
+    double value = sum + compensation;
+
+    // Infinities poison the compensation term, the plain sum has the right answer.
+    if (Double.isNaN(value) && Double.isInfinite(simpleSum)) return simpleSum;
+    return value;
+  }
+
+  public double average() {
+    return value() / (double) count;
+  }
+}
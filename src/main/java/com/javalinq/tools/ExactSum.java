@@ -0,0 +1,56 @@
+package com.javalinq.tools;
+
+import java.math.BigInteger;
+
+/**
+ * A 128-bit running total of longs. The total never overflows, so averages over
+ * values near Long.MAX_VALUE stay correct.
+ */
+public class ExactSum {
+  private static final BigInteger LOW_MASK = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+  // The total is high * 2^64 + (low as an unsigned value).
+  private long high;
+  private long low;
+  private long count;
+
+  public void add(long value) {
+    long sum = low + value;
+    if (Long.compareUnsigned(sum, low) < 0) high++;
+    if (value < 0) high--;
+
+    low = sum;
+    count++;
+  }
+
+  public void merge(ExactSum other) {
+    long sum = low + other.low;
+    if (Long.compareUnsigned(sum, low) < 0) high++;
+
+    high += other.high;
+    low = sum;
+    count += other.count;
+  }
+
+  public long count() { return count; }
+
+  /**
+   * The low 64 bits of the total, which wraps on overflow the same way long addition does.
+   */
+  public long longValue() { return low; }
+
+  /**
+   * The total rounded to the nearest double.
+   */
+  public double doubleValue() {
+    // Totals that fit in a long (the usual case) convert directly.
+    if (high == (low >> 63)) return (double) low;
+
+    BigInteger unsignedLow = BigInteger.valueOf(low).and(LOW_MASK);
+    return BigInteger.valueOf(high).shiftLeft(64).add(unsignedLow).doubleValue();
+  }
+
+  public double average() {
+    return doubleValue() / (double) count;
+  }
+}
@@ -0,0 +1,197 @@
+package com.javalinq.tools;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.implementations.QList;
+import com.javalinq.implementations.QMap;
+
+import java.util.Arrays;
+
+/**
+ * Finds the most frequent keys of a stream with a fixed number of counters (the space
+ * saving algorithm). A key that isn't being counted takes over the smallest counter, and
+ * inherits its count as possible overcount. So counts are never too low, and are too high
+ * by at most count / capacity. Any key seen more often than that is guaranteed to be
+ * counted. A capacity several times the number of keys wanted keeps the top of the list
+ * accurate.
+ *
+ * Counters are kept in a min-heap, so each key costs O(log capacity). Sketches can be
+ * merged, so each segment or shard of a scan can count separately. Keys may not be null.
+ */
+public class HeavyHitters<K> {
+  private final int capacity;
+  private final Object[] keys;
+  private final long[] counts;
+  private final long[] errors;
+  private final QMap<K, Integer> slots;
+  private int size;
+  private long total;
+
+  public HeavyHitters(int capacity) {
+    if (capacity <= 0) throw new QueryException("Capacity must be positive, was %s", capacity);
+
+    this.capacity = capacity;
+    this.keys = new Object[capacity];
+    this.counts = new long[capacity];
+    this.errors = new long[capacity];
+    this.slots = new QMap<>(capacity);
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * How many keys have been added in total.
+   */
+  public long total() {
+    return total;
+  }
+
+  public void add(K key) {
+    add(key, 1);
+  }
+
+  public void add(K key, long count) {
+    total += count;
+
+    Integer slot = slots.getOrDefault(key, null);
+    if (slot != null) {
+      counts[slot] += count;
+      siftDown(slot);
+    } else if (size < capacity) {
+      place(size, key, count, 0);
+      siftUp(size++);
+    } else {
+      // Replace the smallest counter, which is at the root.
+      slots.remove((K) keys[0]);
+      long floor = counts[0];
+      place(0, key, floor + count, floor);
+      siftDown(0);
+    }
+  }
+
+  private void place(int slot, K key, long count, long error) {
+    keys[slot] = key;
+    counts[slot] = count;
+    errors[slot] = error;
+    slots.put(key, slot);
+  }
+
+  /**
+   * Folds another sketch's counts into this one. A key only one side is counting is given
+   * the other side's smallest count (when that side was full) as possible overcount, so the
+   * merged counts are still never too low.
+   */
+  public void merge(HeavyHitters<K> other) {
+    long floor = (size == capacity) ? counts[0] : 0;
+    long otherFloor = (other.size == other.capacity) ? other.counts[0] : 0;
+
+    QMap<K, long[]> merged = new QMap<>(size + other.size);
+    for (int slot = 0; slot < size; slot++) {
+      merged.put((K) keys[slot], new long[] { counts[slot] + otherFloor, errors[slot] + otherFloor });
+    }
+
+    for (int slot = 0; slot < other.size; slot++) {
+      K key = (K) other.keys[slot];
+      long[] existing = merged.getOrDefault(key, null);
+      if (existing != null) {
+        existing[0] += other.counts[slot] - otherFloor;
+        existing[1] += other.errors[slot] - otherFloor;
+      } else {
+        merged.put(key, new long[] { other.counts[slot] + floor, other.errors[slot] + floor });
+      }
+    }
+
+    long total = this.total + other.total;
+    QList<KeyValuePair<K, long[]>> largest = merged.orderByLongDescending(entry -> entry.value()[0]).take(capacity).toList();
+
+    clear();
+    for (KeyValuePair<K, long[]> entry : largest) {
+      place(size, entry.key(), entry.value()[0], entry.value()[1]);
+      siftUp(size++);
+    }
+
+    this.total = total;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, null);
+    slots.clear();
+    size = 0;
+    total = 0;
+  }
+
+  /**
+   * The 'count' keys with the highest estimated counts, most frequent first.
+   */
+  public QList<KeyValuePair<K, Long>> top(int count) {
+    Integer[] order = new Integer[size];
+    Arrays.setAll(order, Integer::valueOf);
+    Arrays.sort(order, (lhs, rhs) -> Long.compare(counts[rhs], counts[lhs]));
+
+    QList<KeyValuePair<K, Long>> top = new QList<>();
+    for (int index = 0; index < Math.min(count, size); index++) {
+      top.add(new KeyValuePair<>((K) keys[order[index]], counts[order[index]]));
+    }
+
+    return top;
+  }
+
+  /**
+   * The estimated count for the key, never less than the true count. Keys that aren't
+   * being counted report 0, though they may have been seen up to the smallest count times.
+   */
+  public long estimate(K key) {
+    Integer slot = slots.getOrDefault(key, null);
+    return (slot != null) ? counts[slot] : 0;
+  }
+
+  /**
+   * How much of the key's estimate may be overcount.
+   */
+  public long error(K key) {
+    Integer slot = slots.getOrDefault(key, null);
+    return (slot != null) ? errors[slot] : 0;
+  }
+
+  private void siftUp(int slot) {
+    while (slot > 0) {
+      int parent = (slot - 1) >>> 1;
+      if (counts[parent] <= counts[slot]) return;
+
+      swap(slot, parent);
+      slot = parent;
+    }
+  }
+
+  private void siftDown(int slot) {
+    while (true) {
+      int smallest = slot;
+      int left = 2 * slot + 1;
+      int right = left + 1;
+      if (left < size && counts[left] < counts[smallest]) smallest = left;
+      if (right < size && counts[right] < counts[smallest]) smallest = right;
+      if (smallest == slot) return;
+
+      swap(slot, smallest);
+      slot = smallest;
+    }
+  }
+
+  private void swap(int lhs, int rhs) {
+    Object key = keys[lhs];
+    keys[lhs] = keys[rhs];
+    keys[rhs] = key;
+
+    long count = counts[lhs];
+    counts[lhs] = counts[rhs];
+    counts[rhs] = count;
+
+    long error = errors[lhs];
+    errors[lhs] = errors[rhs];
+    errors[rhs] = error;
+
+    slots.put((K) keys[lhs], lhs);
+    slots.put((K) keys[rhs], rhs);
+  }
+}
@@ -0,0 +1,121 @@
+package com.javalinq.tools;
+
+import com.javalinq.exceptions.QueryException;
+
+/**
+ * Estimates how many distinct values it has seen in 2^precision bytes, however many values
+ * there are. The relative standard error is about 1.04 / sqrt(2^precision): 0.8% at the
+ * default precision of 14 (16KB). Sketches with the same precision can be merged, so each
+ * segment or shard of a scan can count separately.
+ *
+ * Values are hashed to 64 bits. Integral numbers and strings are hashed from their contents,
+ * so they can be counted well past 2^32 distinct values. Other objects are hashed from their
+ * hashCode, which limits them to about that many.
+ */
+public class HyperLogLog {
+  public static final int DEFAULT_PRECISION = 14;
+  private static final int MINIMUM_PRECISION = 4;
+  private static final int MAXIMUM_PRECISION = 18;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  public HyperLogLog(int precision) {
+    if (precision < MINIMUM_PRECISION || precision > MAXIMUM_PRECISION) {
+      throw new QueryException("Precision %s must be between %s and %s", precision, MINIMUM_PRECISION, MAXIMUM_PRECISION);
+    }
+
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  public int precision() {
+    return precision;
+  }
+
+  public void add(Object value) {
+    if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      addHash(mix(((Number) value).longValue()));
+    } else if (value instanceof CharSequence) {
+      addHash(hash((CharSequence) value));
+    } else {
+      addHash(mix((value == null) ? 0 : value.hashCode()));
+    }
+  }
+
+  public void add(long value) {
+    addHash(mix(value));
+  }
+
+  // The top 'precision' bits pick the register, which keeps the longest run of leading
+  // zeros (plus one) seen in the remaining bits.
+  private void addHash(long hash) {
+    int register = (int) (hash >>> (64 - precision));
+    int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    if (rank > registers[register]) registers[register] = (byte) rank;
+  }
+
+  // The finalizer from MurmurHash3, so nearby values land far apart.
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+
+  private static long hash(CharSequence value) {
+    long hash = 0x9E3779B97F4A7C15L;
+    for (int index = 0; index < value.length(); index++) {
+      hash = (hash ^ value.charAt(index)) * 0x100000001B3L;
+    }
+
+    return mix(hash ^ value.length());
+  }
+
+  /**
+   * Folds another sketch's values into this one.
+   */
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new QueryException("Can't merge sketches with precisions %s and %s", precision, other.precision);
+    }
+
+    for (int register = 0; register < registers.length; register++) {
+      if (other.registers[register] > registers[register]) registers[register] = other.registers[register];
+    }
+  }
+
+  public long estimate() {
+    int count = registers.length;
+    double sum = 0;
+    int empty = 0;
+    for (byte rank : registers) {
+      sum += 1.0 / (1L << rank);
+      if (rank == 0) empty++;
+    }
+
+    double estimate = alpha(count) * count * (double) count / sum;
+
+    // Small cardinalities are counted more accurately from the number of empty registers.
+    if (estimate <= 2.5 * count && empty > 0) {
+      estimate = count * Math.log((double) count / empty);
+    }
+
+    return Math.round(estimate);
+  }
+
+  private static double alpha(int count) {
+    switch (count) {
+      case 16: return 0.673;
+      case 32: return 0.697;
+      case 64: return 0.709;
+      default: return 0.7213 / (1 + 1.079 / count);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.javalinq.tools;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * The current value of an aggregate registered on a LiveView. It is updated as the
+ * collection changes, so get() is a read rather than a query. close() stops the updates.
+ */
+public class LiveValue<R> {
+  private final ReadWriteLock lock;
+  private final Supplier<R> current;
+  private final Runnable close;
+
+  LiveValue(ReadWriteLock lock, Supplier<R> current, Runnable close) {
+    this.lock = lock;
+    this.current = current;
+    this.close = close;
+  }
+
+  public R get() {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      return current.get();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  public void close() {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      close.run();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+}
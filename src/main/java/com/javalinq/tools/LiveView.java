@@ -0,0 +1,220 @@
+package com.javalinq.tools;
+
+import com.javalinq.implementations.QList;
+import com.javalinq.implementations.QMap;
+import com.javalinq.interfaces.ChangeListener;
+import com.javalinq.interfaces.ObservableIterable;
+import com.javalinq.interfaces.QIterable;
+
+import java.util.Iterator;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A query over an ObservableIterable whose aggregates are kept up to date as the
+ * collection changes:
+ *
+ *   LiveValue<Long> open = orders.liveView(order -> order.isOpen()).liveCount();
+ *   LiveValue<QMap<String, Long>> byRegion = orders.liveView().liveGroupCount(order -> order.region);
+ *
+ * where and map don't store anything: they pass each added or removed item down to the
+ * aggregates registered below them, so a change costs O(1) per aggregate however large the
+ * collection is. Registering an aggregate reads the current items once.
+ *
+ * Removals are matched by value, so filters and projections must give the same answer for
+ * an item every time they see it. Reading the view itself (iterating, toList, ...) runs it
+ * as an ordinary query over the collection.
+ */
+public class LiveView<T> implements QIterable<T> {
+  private final ObservableIterable root;
+  private final QIterable<T> query;
+  private final Function<ChangeListener<T>, ChangeListener> toRoot;
+
+  private LiveView(ObservableIterable root, QIterable<T> query, Function<ChangeListener<T>, ChangeListener> toRoot) {
+    this.root = root;
+    this.query = query;
+    this.toRoot = toRoot;
+  }
+
+  public static <T> LiveView<T> of(ObservableIterable<T> source) {
+    return new LiveView<>(source, source, listener -> listener);
+  }
+
+  @Override
+  public LiveView<T> where(Predicate<T> predicate) {
+    return new LiveView<>(root, query.where(predicate), listener -> toRoot.apply(new ChangeListener<T>() {
+      @Override
+      public void added(T item) {
+        if (predicate.test(item)) listener.added(item);
+      }
+
+      @Override
+      public void removed(T item) {
+        if (predicate.test(item)) listener.removed(item);
+      }
+
+      @Override
+      public void cleared() {
+        listener.cleared();
+      }
+    }));
+  }
+
+  @Override
+  public <U> LiveView<U> map(Function<T, U> projection) {
+    return new LiveView<>(root, query.map(projection), listener -> toRoot.apply(new ChangeListener<T>() {
+      @Override
+      public void added(T item) {
+        listener.added(projection.apply(item));
+      }
+
+      @Override
+      public void removed(T item) {
+        listener.removed(projection.apply(item));
+      }
+
+      @Override
+      public void cleared() {
+        listener.cleared();
+      }
+    }));
+  }
+
+  public LiveValue<Long> liveCount() {
+    long[] count = new long[1];
+    return register(new ChangeListener<T>() {
+      @Override
+      public void added(T item) { count[0]++; }
+
+      @Override
+      public void removed(T item) { count[0]--; }
+
+      @Override
+      public void cleared() { count[0] = 0; }
+    }, () -> count[0]);
+  }
+
+  public LiveValue<Long> liveSumLong(ToLongFunction<T> onProperty) {
+    long[] sum = new long[1];
+    return register(new ChangeListener<T>() {
+      @Override
+      public void added(T item) { sum[0] += onProperty.applyAsLong(item); }
+
+      @Override
+      public void removed(T item) { sum[0] -= onProperty.applyAsLong(item); }
+
+      @Override
+      public void cleared() { sum[0] = 0; }
+    }, () -> sum[0]);
+  }
+
+  public LiveValue<Double> liveSumDouble(ToDoubleFunction<T> onProperty) {
+    CompensatedSum[] sum = { new CompensatedSum() };
+    return register(new ChangeListener<T>() {
+      @Override
+      public void added(T item) { sum[0].add(onProperty.applyAsDouble(item)); }
+
+      @Override
+      public void removed(T item) { sum[0].add(-onProperty.applyAsDouble(item)); }
+
+      @Override
+      public void cleared() { sum[0] = new CompensatedSum(); }
+    }, () -> sum[0].value());
+  }
+
+  /**
+   * The number of items per key. get() returns a copy, and groups that empty are dropped.
+   * Keys may not be null.
+   */
+  public <K> LiveValue<QMap<K, Long>> liveGroupCount(Function<T, K> onKey) {
+    return liveGroups(onKey, (group, item, sign) -> { }, group -> group.count);
+  }
+
+  public <K> LiveValue<QMap<K, Long>> liveGroupSumLong(Function<T, K> onKey, ToLongFunction<T> onProperty) {
+    return liveGroups(onKey, (group, item, sign) -> group.longSum += sign * onProperty.applyAsLong(item), group -> group.longSum);
+  }
+
+  public <K> LiveValue<QMap<K, Double>> liveGroupSumDouble(Function<T, K> onKey, ToDoubleFunction<T> onProperty) {
+    return liveGroups(onKey, (group, item, sign) -> group.doubleSum.add(sign * onProperty.applyAsDouble(item)), group -> group.doubleSum.value());
+  }
+
+  private interface GroupUpdate<T> {
+    void apply(Group group, T item, int sign);
+  }
+
+  private static class Group {
+    private long count;
+    private long longSum;
+    private final CompensatedSum doubleSum = new CompensatedSum();
+  }
+
+  // Groups are counted as well as summed, so a group can be dropped once its last item goes.
+  private <K, R> LiveValue<QMap<K, R>> liveGroups(Function<T, K> onKey, GroupUpdate<T> update, Function<Group, R> read) {
+    QMap<K, Group> groups = new QMap<>();
+    return register(new ChangeListener<T>() {
+      @Override
+      public void added(T item) {
+        Group group = groups.computeIfAbsent(onKey.apply(item), missing -> new Group());
+        group.count++;
+        update.apply(group, item, 1);
+      }
+
+      @Override
+      public void removed(T item) {
+        K key = onKey.apply(item);
+        Group group = groups.getOrDefault(key, null);
+        if (group == null) return;
+
+        update.apply(group, item, -1);
+        if (--group.count == 0) groups.remove(key);
+      }
+
+      @Override
+      public void cleared() {
+        groups.clear();
+      }
+    }, () -> {
+      QMap<K, R> values = new QMap<>(groups.size());
+      groups.forEachEntry((key, group) -> values.put(key, read.apply(group)));
+      return values;
+    });
+  }
+
+  // Seeds the aggregate from the current items and subscribes it, with writers held off
+  // so no change is missed or counted twice.
+  private <R> LiveValue<R> register(ChangeListener<T> aggregate, Supplier<R> current) {
+    Lock writeLock = root.lock().writeLock();
+    writeLock.lock();
+    try {
+      query.forEach(aggregate::added);
+
+      ChangeListener listener = toRoot.apply(aggregate);
+      root.subscribe(listener);
+      return new LiveValue<>(root.lock(), current, () -> root.unsubscribe(listener));
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * The items currently in the view, read under the collection's read lock.
+   */
+  @Override
+  public QList<T> toList() {
+    return (QList<T>) root.read(query::toList);
+  }
+
+  @Override
+  public boolean forEachWhile(Predicate<T> action) {
+    return query.forEachWhile(action);
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return query.iterator();
+  }
+}
@@ -0,0 +1,72 @@
+package com.javalinq.tools;
+
+import com.javalinq.implementations.QList;
+import com.javalinq.interfaces.QIterable;
+
+/**
+ * What one operator of a profiled query did: the rows it read from its inputs and
+ * produced, and the time and memory spent inside it. Times and allocations are measured
+ * both including the operator's inputs and for the operator alone. Allocations are -1 where
+ * the JVM can't measure them per thread.
+ */
+public class OperatorProfile {
+  private final String name;
+  private final QList<OperatorProfile> inputs;
+  private final long rowsOut;
+  private final long wallNanos;
+  private final long allocatedBytes;
+
+  public OperatorProfile(String name, QList<OperatorProfile> inputs, long rowsOut, long wallNanos, long allocatedBytes) {
+    this.name = name;
+    this.inputs = inputs;
+    this.rowsOut = rowsOut;
+    this.wallNanos = wallNanos;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  public String name() { return name; }
+  public QIterable<OperatorProfile> inputs() { return inputs; }
+  public long rowsOut() { return rowsOut; }
+  public long wallNanos() { return wallNanos; }
+  public long allocatedBytes() { return allocatedBytes; }
+
+  /**
+   * Rows read from all inputs. Sources have no inputs, so this is the same as rowsOut for them.
+   */
+  public long rowsIn() {
+    return inputs.any() ? inputs.sumLong(OperatorProfile::rowsOut) : rowsOut;
+  }
+
+  /**
+   * Rows out per row in, 1 when nothing was read.
+   */
+  public double selectivity() {
+    long rowsIn = this.rowsIn();
+    return (rowsIn == 0) ? 1 : (double) rowsOut / rowsIn;
+  }
+
+  public long selfNanos() {
+    return wallNanos - inputs.sumLong(OperatorProfile::wallNanos);
+  }
+
+  public long selfAllocatedBytes() {
+    if (allocatedBytes < 0) return allocatedBytes;
+    return allocatedBytes - inputs.sumLong(OperatorProfile::allocatedBytes);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    this.print(builder, 0);
+    return builder.toString();
+  }
+
+  private void print(StringBuilder builder, int depth) {
+    for (int indent = 0; indent < depth; indent++) builder.append("  ");
+    builder.append(String.format("%s: %d in, %d out (%.1f%%), %.3fms (self %.3fms), %d bytes (self %d)%n",
+      name, rowsIn(), rowsOut, selectivity() * 100, wallNanos / 1e6, selfNanos() / 1e6,
+      allocatedBytes, selfAllocatedBytes()));
+
+    for (OperatorProfile input : inputs) input.print(builder, depth + 1);
+  }
+}
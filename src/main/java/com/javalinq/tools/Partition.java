@@ -23,15 +23,15 @@ public class Partition<U, T> implements QIterable<QIterable<T>> {
     }
   }
 
-  public QList<T> getListForKey(U key) {
-    if (map.containsKey(key)) {
-      return map.get(key);
-    }
-
-    QList<T> newListForKey = new QList<>();
-    map.put(key, newListForKey);
+  /**
+   * Wraps lists that are already grouped by key.
+   */
+  public Partition(Map<U, QList<T>> groups) {
+    this.map = groups;
+  }
 
-    return newListForKey;
+  public QList<T> getListForKey(U key) {
+    return map.computeIfAbsent(key, missing -> new QList<>());
   }
 
   public QIterable<T> flatten() {
@@ -0,0 +1,165 @@
+package com.javalinq.tools;
+
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.implementations.QDoubleList;
+import com.javalinq.implementations.QList;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Estimates quantiles (median, p99, ...) of a stream of doubles in a few kilobytes, using
+ * a KLL sketch. Values are kept in levels, where a value in level h stands for 2^h of the
+ * originals. When a level fills up it's sorted and every other value (starting at random)
+ * moves up a level, so the sketch holds at most about 3k values (see retained()) however
+ * many are added. The rank error is about 1.7 / k: around 1% for the default k of 200.
+ *
+ * Sketches can be merged, so each segment or shard of a scan can build its own. NaNs are
+ * ignored. The minimum and maximum are exact.
+ */
+public class QuantileSketch {
+  public static final int DEFAULT_ACCURACY = 200;
+  private static final int MINIMUM_ACCURACY = 8;
+  private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+  private final int accuracy;
+  private final QList<QDoubleList> levels = new QList<>();
+  private long count;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+
+  public QuantileSketch() {
+    this(DEFAULT_ACCURACY);
+  }
+
+  /**
+   * @param accuracy the capacity (k) of the top level. Memory and accuracy grow with it.
+   */
+  public QuantileSketch(int accuracy) {
+    if (accuracy < MINIMUM_ACCURACY) {
+      throw new QueryException("Accuracy %s must be at least %s", accuracy, MINIMUM_ACCURACY);
+    }
+
+    this.accuracy = accuracy;
+    this.levels.add(new QDoubleList());
+  }
+
+  public long count() {
+    return count;
+  }
+
+  public double min() {
+    return min;
+  }
+
+  public double max() {
+    return max;
+  }
+
+  public void add(double value) {
+    if (Double.isNaN(value)) return;
+
+    levels.get(0).add(value);
+    record(1, value, value);
+    compress();
+  }
+
+  private void record(long count, double min, double max) {
+    this.count += count;
+    if (Double.isNaN(this.min) || min < this.min) this.min = min;
+    if (Double.isNaN(this.max) || max > this.max) this.max = max;
+  }
+
+  /**
+   * Folds another sketch's values into this one.
+   */
+  public void merge(QuantileSketch other) {
+    if (other.count == 0) return;
+
+    for (int level = 0; level < other.levels.size(); level++) {
+      if (level == levels.size()) levels.add(new QDoubleList());
+      levels.get(level).add(other.levels.get(level));
+    }
+
+    record(other.count, other.min, other.max);
+    compress();
+  }
+
+  // Lower levels get geometrically less room than the top one.
+  private int capacity(int level) {
+    return Math.max(2, (int) Math.ceil(accuracy * Math.pow(CAPACITY_DECAY, levels.size() - level - 1)));
+  }
+
+  // Adding a top level shrinks the capacity of every level below it, so levels already
+  // passed may be over capacity again: start over until none are.
+  private void compress() {
+    for (int level = 0; level < levels.size(); level++) {
+      if (levels.get(level).size() < capacity(level)) continue;
+
+      boolean isGrowing = (level + 1 == levels.size());
+      if (isGrowing) levels.add(new QDoubleList());
+      compact(levels.get(level), levels.get(level + 1));
+      if (isGrowing) level = -1;
+    }
+  }
+
+  /**
+   * How many values the sketch is holding: under 3k, plus a couple per level.
+   */
+  public int retained() {
+    int retained = 0;
+    for (QDoubleList level : levels) retained += level.size();
+    return retained;
+  }
+
+  private static void compact(QDoubleList level, QDoubleList above) {
+    double[] sorted = level.toArray();
+    Arrays.sort(sorted);
+    level.clear();
+
+    // An odd one out stays behind, so the total weight is unchanged.
+    int end = sorted.length;
+    if ((end & 1) == 1) level.add(sorted[--end]);
+
+    for (int index = ThreadLocalRandom.current().nextInt(2); index < end; index += 2) {
+      above.add(sorted[index]);
+    }
+  }
+
+  /**
+   * The value below which about a fraction q of the values fall.
+   */
+  public double quantile(double q) {
+    if (q < 0 || q > 1) throw new QueryException("Quantile %s must be between 0 and 1", q);
+    if (count == 0) throw new QueryException("Sequence contains no items");
+    if (q == 0) return min;
+    if (q == 1) return max;
+
+    int size = retained();
+
+    // Sort (value, level) pairs by value, then walk the cumulative weight up to the rank.
+    double[] values = new double[size];
+    int[] heights = new int[size];
+    int position = 0;
+    for (int level = 0; level < levels.size(); level++) {
+      QDoubleList items = levels.get(level);
+      for (int index = 0; index < items.size(); index++) {
+        values[position] = items.get(index);
+        heights[position++] = level;
+      }
+    }
+
+    Integer[] order = new Integer[size];
+    Arrays.setAll(order, Integer::valueOf);
+    Arrays.sort(order, (lhs, rhs) -> Double.compare(values[lhs], values[rhs]));
+
+    double rank = q * count;
+    long weight = 0;
+    for (int index : order) {
+      weight += 1L << heights[index];
+      if (weight >= rank) return values[index];
+    }
+
+    return max;
+  }
+}
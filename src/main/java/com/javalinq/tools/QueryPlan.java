@@ -0,0 +1,70 @@
+package com.javalinq.tools;
+
+import com.javalinq.implementations.QList;
+import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.QueryOperator;
+import com.javalinq.interfaces.SizedIterable;
+
+import java.util.Collection;
+
+/**
+ * The operator tree of a query, as returned by explain(). Each node is an operator
+ * (Where, Map, OrderBy, ...) or, at the leaves, the collections the query reads from.
+ * toString() prints the tree with one operator per line, inputs indented below it.
+ */
+public class QueryPlan {
+  private final String name;
+  private final QList<QueryPlan> inputs;
+
+  private QueryPlan(String name, QList<QueryPlan> inputs) {
+    this.name = name;
+    this.inputs = inputs;
+  }
+
+  public static QueryPlan of(Iterable<?> query) {
+    if (query instanceof QueryOperator) {
+      QueryOperator<?> operator = (QueryOperator<?>) query;
+      QList<QueryPlan> inputs = new QList<>();
+      for (Iterable<?> source : operator.sources()) inputs.add(QueryPlan.of(source));
+
+      return new QueryPlan(operator.operatorName(), inputs);
+    }
+
+    return new QueryPlan(describe(query), new QList<>());
+  }
+
+  /**
+   * The name of a source: its class, and its size where that's known without iterating.
+   */
+  public static String describe(Iterable<?> source) {
+    Class<?> type = source.getClass();
+    String name = type.isAnonymousClass()
+      ? ((source instanceof QIterable) ? "QIterable" : "Iterable")
+      : type.getSimpleName();
+
+    if (source instanceof SizedIterable) {
+      return String.format("%s[%s]", name, ((SizedIterable<?>) source).size());
+    } else if (source instanceof Collection) {
+      return String.format("%s[%s]", name, ((Collection<?>) source).size());
+    }
+
+    return name;
+  }
+
+  public String name() { return name; }
+  public QIterable<QueryPlan> inputs() { return inputs; }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    this.print(builder, 0);
+    return builder.toString();
+  }
+
+  private void print(StringBuilder builder, int depth) {
+    for (int indent = 0; indent < depth; indent++) builder.append("  ");
+    builder.append(name).append('\n');
+
+    for (QueryPlan input : inputs) input.print(builder, depth + 1);
+  }
+}
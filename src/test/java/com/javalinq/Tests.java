@@ -1,16 +1,52 @@
 package com.javalinq;
 
+import com.javalinq.exceptions.QueryException;
+import com.javalinq.implementations.QColumnList;
+import com.javalinq.implementations.QConcurrentMap;
+import com.javalinq.implementations.QDoubleList;
+import com.javalinq.implementations.QIndexedList;
+import com.javalinq.implementations.QIntList;
+import com.javalinq.implementations.QIntSet;
+import com.javalinq.implementations.QLongList;
 import com.javalinq.implementations.QList;
 import com.javalinq.implementations.QMap;
+import com.javalinq.implementations.QObservableList;
+import com.javalinq.implementations.QObservableSet;
+import com.javalinq.implementations.QRecordFile;
 import com.javalinq.implementations.QSet;
+import com.javalinq.implementations.QSortedList;
+import com.javalinq.interfaces.IndexedIterable;
+import com.javalinq.interfaces.QIntIterable;
 import com.javalinq.interfaces.QIterable;
+import com.javalinq.interfaces.SizedIterable;
+import com.javalinq.iterators.MemoizeIterable;
+import com.javalinq.iterators.ProfiledIterable;
+import com.javalinq.tools.Aggregators;
+import com.javalinq.tools.HyperLogLog;
 import com.javalinq.tools.KeyValuePair;
+import com.javalinq.tools.LiveValue;
+import com.javalinq.tools.OperatorProfile;
 import com.javalinq.tools.Partition;
+import com.javalinq.tools.QuantileSketch;
+import com.javalinq.tools.QueryPlan;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class Tests {
   @Test
@@ -89,6 +125,94 @@ public class Tests {
   }
 
 
+  @Test
+  public void orderByThenBy() {
+    QList<String> list = new QList<String>("Four", "One", "Three", "Two", "Five", "Eleven", "Six");
+
+    // Shortest first, then alphabetically.
+    QIterable<String> ordered = list.orderByInt(String::length).thenBy(item -> item);
+    assert (ordered.get(0).equals("One"));
+    assert (ordered.get(1).equals("Six"));
+    assert (ordered.get(2).equals("Two"));
+    assert (ordered.get(3).equals("Five"));
+    assert (ordered.get(4).equals("Four"));
+    assert (ordered.get(5).equals("Three"));
+    assert (ordered.get(6).equals("Eleven"));
+
+    // Longest first, ties keep their encounter order.
+    QIterable<String> descending = list.orderByDescending(String::length);
+    assert (descending.get(0).equals("Eleven"));
+    assert (descending.get(1).equals("Three"));
+    assert (descending.get(2).equals("Four"));
+    assert (descending.get(3).equals("Five"));
+
+    // Each key is extracted once per item.
+    int[] extractions = new int[1];
+    list.orderBy(item -> {
+      extractions[0]++;
+      return item;
+    }).thenByDoubleDescending(item -> item.length()).count();
+    assert (extractions[0] == 7);
+
+    // Large enough to take the parallel path, with a packed int key and with a tuple of keys.
+    QList<Integer> numbers = new QList<>();
+    for (int index = 0; index < 100000; index++) numbers.add((index * 7919) % 100000);
+
+    QIterable<Integer> byValue = numbers.orderByIntDescending(number -> number);
+    QIterable<Integer> byParity = numbers.orderByLong(number -> number % 2).thenBy(number -> number);
+    for (int index = 0; index < 100000; index++) {
+      assert (byValue.get(index) == 99999 - index);
+    }
+
+    assert (byParity.get(0) == 0);
+    assert (byParity.get(49999) == 99998);
+    assert (byParity.get(50000) == 1);
+    assert (numbers.orderByLong(number -> number % 2).thenBy(number -> number).take(3).last() == 4);
+
+    // Sequential queries extract keys on the calling thread only, parallel ones may fan out.
+    Thread caller = Thread.currentThread();
+    boolean[] isElsewhere = { false };
+    numbers.orderBy(number -> {
+      if (Thread.currentThread() != caller) isElsewhere[0] = true;
+      return number;
+    }).thenByInt(number -> {
+      if (Thread.currentThread() != caller) isElsewhere[0] = true;
+      return number;
+    }).count();
+    numbers.orderByInt(number -> {
+      if (Thread.currentThread() != caller) isElsewhere[0] = true;
+      return number;
+    }).count();
+    assert (!isElsewhere[0]);
+    assert (numbers.parallel().orderByInt(number -> number).get(12345) == 12345);
+  }
+
+  @Test
+  public void topAndBottom() {
+    QList<String> list = new QList<String>("Four", "One", "Three", "Two", "Five", "Eleven", "Six");
+
+    // Largest keys first, ties keep their encounter order.
+    QIterable<String> longest = list.top(3, String::length);
+    assert (longest.count() == 3);
+    assert (longest.get(0).equals("Eleven"));
+    assert (longest.get(1).equals("Three"));
+    assert (longest.get(2).equals("Four"));
+
+    QIterable<String> shortest = list.bottom(3, String::length);
+    assert (shortest.get(0).equals("One"));
+    assert (shortest.get(1).equals("Two"));
+    assert (shortest.get(2).equals("Six"));
+
+    // take after sort selects the leading items rather than sorting everything.
+    QIterable<String> firstTwo = list.sort(String::length).take(2);
+    assert (firstTwo.count() == 2);
+    assert (firstTwo.get(0).equals("One"));
+    assert (firstTwo.get(1).equals("Two"));
+
+    assert (list.top(10, String::length).count() == 7);
+    assert (!list.top(0, String::length).any());
+  }
+
   @Test
   public void testQMapRemoval() {
     QMap<Integer, String> items = new QMap<>();
@@ -101,6 +225,43 @@ public class Tests {
     assert(!items.containsKey(2));
   }
 
+  @Test
+  public void testQMapOperations() {
+    QMap<Integer, Integer> items = new QMap<>();
+    Map<Integer, Integer> expected = new HashMap<>();
+
+    // Enough keys (including MIN_VALUE) to force several resizes, then remove every third one.
+    for (int index = 0; index < 10000; index++) {
+      int key = (index == 0) ? Integer.MIN_VALUE : index * 31;
+      boolean isAdded = items.add(key, index);
+      assert (isAdded);
+      expected.put(key, index);
+    }
+
+    for (int index = 0; index < 10000; index += 3) {
+      int key = (index == 0) ? Integer.MIN_VALUE : index * 31;
+      boolean isRemoved = items.remove(key);
+      assert (isRemoved);
+      expected.remove(key);
+    }
+
+    assert (items.count() == expected.size());
+    for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+      assert (items.get(entry.getKey()).equals(entry.getValue()));
+    }
+
+    Integer key = 31;
+    boolean isReplaced = items.add(key, -1);
+    Integer previous = items.put(key, -1);
+    assert (!isReplaced && previous == 1);
+    assert (items.get(key) == -1);
+    assert (items.getOrDefault(-5, 42) == 42);
+    int computed = items.computeIfAbsent(-5, missing -> missing * 2);
+    int existing = items.computeIfAbsent(-5, missing -> 0);
+    assert (computed == -10 && existing == -10);
+    assert (items.keys().count() == expected.size() + 1);
+  }
+
   @Test
   public void parition() {
     QList<Integer> list = new QList<Integer>(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
@@ -128,6 +289,33 @@ public class Tests {
 
   }
 
+  @Test
+  public void groupBy() {
+    QList<String> list = new QList<String>("One", "Two", "Three", "Four", "Five", "Six", "Seven");
+
+    // Count and total length per first letter, without building a list per group.
+    QMap<String, Long> counts = list.groupBy(item -> item.substring(0, 1), Aggregators.count());
+    QMap<String, Long> lengths = list.groupBy(item -> item.substring(0, 1), Aggregators.sumInt(String::length));
+
+    assert (counts.count() == 4);
+    assert (counts.get("T") == 2);
+    assert (counts.get("S") == 2);
+    assert (lengths.get("F") == 8);
+    assert (lengths.get("S") == 8);
+
+    QMap<String, StringBuilder> joined = list.aggregateBy(item -> item.substring(0, 1), StringBuilder::new, StringBuilder::append);
+    assert (joined.get("T").toString().equals("TwoThree"));
+
+    // Parallel segments aggregate separately and merge their partial maps.
+    QList<Integer> numbers = new QList<>();
+    for (int index = 0; index < 100000; index++) numbers.add(index);
+
+    QMap<Integer, Long> sums = numbers.parallel().groupBy(number -> number % 10, Aggregators.sumLong(number -> number));
+    assert (sums.count() == 10);
+    assert (sums.getOrDefault(0, 0L) == numbers.where(number -> number % 10 == 0).sumLong(number -> number));
+    assert (sums.getOrDefault(9, 0L) == numbers.where(number -> number % 10 == 9).sumLong(number -> number));
+  }
+
   @Test
   public void flatten() {
     QList<Integer> list = new QList<Integer>(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
@@ -246,6 +434,71 @@ public class Tests {
     assert (exclusion.get(1) == 3);
   }
 
+  @Test
+  public void lazySetOperations() {
+    QList<Integer> lhs = new QList<Integer>(1, 2, 3, 4);
+    QList<Integer> rhs = new QList<Integer>(3, 4, 5);
+    int[] pulled = new int[1];
+    QIterable<Integer> counted = lhs.map(item -> {
+      pulled[0]++;
+      return item;
+    });
+
+    // Nothing runs until the result is read, and reading stops as soon as it can.
+    QIterable<Integer> concat = counted.concat(rhs);
+    QIterable<Integer> except = counted.except(rhs);
+    QIterable<Integer> flattened = new QList<QIterable<Integer>>(counted, rhs).flatten(item -> item);
+    assert (pulled[0] == 0);
+
+    assert (concat.first() == 1);
+    assert (except.first() == 1);
+    assert (flattened.first() == 1);
+    assert (pulled[0] == 3);
+
+    // Changes to the sources show up the next time the result is read.
+    lhs.add(6);
+    assert (concat.count() == 8);
+    assert (except.last() == 6);
+    assert (counted.intersect(new QSet<Integer>(4, 6)).count() == 2);
+    assert (lhs.unionDistinct(rhs).count() == 6);
+    assert (flattened.count() == 8);
+
+    // Iterating a concat with a filtered side keeps every item.
+    QList<Integer> iterated = new QList<>();
+    for (int item : lhs.where(item -> item > 1).concat(rhs.where(item -> item < 5))) iterated.add(item);
+    assert (iterated.count() == 6);
+    assert (iterated.sumInt(item -> item) == 2 + 3 + 4 + 6 + 3 + 4);
+  }
+
+  @Test
+  public void joins() {
+    QList<String> words = new QList<String>("One", "Three", "Eleven", "Seventeen", "Twenty");
+    QList<Integer> lengths = new QList<Integer>(9, 5, 5, 3);
+
+    // The lengths are the smaller side here, so they're hashed and results follow the order of the words.
+    QIterable<String> joined = lengths.join(words, length -> length, String::length, (length, word) -> length + ":" + word);
+    QList<String> results = joined.toList();
+    assert (results.count() == 4);
+    assert (results.get(0).equals("3:One"));
+    assert (results.get(1).equals("5:Three"));
+    assert (results.get(2).equals("5:Three"));
+    assert (results.get(3).equals("9:Seventeen"));
+
+    // Left join keeps words without a matching length.
+    QIterable<String> left = words.leftJoin(lengths.distinct(), String::length, length -> length,
+      (word, length) -> word + ":" + length);
+    assert (left.get(1).equals("Three:5"));
+    assert (left.get(2).equals("Eleven:null"));
+    assert (left.count() == 5);
+
+    // Group join pairs each word with every matching length.
+    QIterable<Long> matches = words.groupJoin(lengths, String::length, length -> length, (word, group) -> group.count());
+    assert (matches.get(0) == 1);
+    assert (matches.get(1) == 2);
+    assert (matches.get(2) == 0);
+    assert (matches.get(3) == 1);
+  }
+
   @Test
   public void reverse() {
     QIterable<Integer> lhs = new QList<Integer>(1, 2, 3, 4, 5);
@@ -258,6 +511,53 @@ public class Tests {
     assert (reversed.get(2) == 3);
     assert (reversed.get(3) == 2);
     assert (reversed.get(4) == 1);
+
+    // Sources without random access are read once per query, not once per item.
+    QList<Integer> numbers = new QList<>();
+    for (int number = 0; number < 2000; number++) numbers.add(number);
+
+    int[] calls = { 0 };
+    QIterable<Integer> evens = numbers.where(number -> {
+      calls[0]++;
+      return number % 2 == 0;
+    }).reverse();
+
+    assert (evens.first() == 1998);
+    assert (calls[0] == 2000);
+    assert (evens.sumInt(number -> number) == 999000);
+    assert (evens.toList().get(0) == 1998);
+    assert (evens.skip(10).first() == 1978);
+    assert (evens.parallel().count() == 1000);
+    assert (calls[0] == 10000);
+  }
+
+  @Test
+  public void indexedAndSized() {
+    QList<Integer> list = new QList<Integer>(1, 2, 3, 4, 5);
+    int[] projections = new int[1];
+
+    // Mapping a list keeps random access, so only the requested items get projected.
+    QIterable<Integer> doubled = list.map(item -> {
+      projections[0]++;
+      return item * 2;
+    });
+
+    assert (doubled instanceof IndexedIterable);
+    assert (doubled.get(3) == 8);
+    assert (doubled.last() == 10);
+    assert (doubled.count() == 5);
+    assert (projections[0] == 2);
+
+    // Reversing reads the list back to front, and reversing twice gives the list back.
+    QIterable<Integer> reversed = doubled.reverse();
+    assert (reversed.get(0) == 10);
+    assert (reversed.last() == 2);
+    assert (reversed.reverse() == doubled);
+
+    // Sets know their size but can't be indexed.
+    assert (new QSet<Integer>(1, 2, 3).map(item -> item) instanceof SizedIterable);
+    assert (!(new QSet<Integer>(1, 2, 3).map(item -> item) instanceof IndexedIterable));
+    assert (list.where(item -> item > 2).reverse().get(0) == 5);
   }
 
   @Test
@@ -377,6 +677,1008 @@ public class Tests {
     assert (total == 55);
   }
 
+  @Test
+  public void memoize() throws InterruptedException {
+    QList<Integer> numbers = new QList<Integer>(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    int[] pulled = new int[1];
+
+    QIterable<Integer> evens = numbers.where(number -> {
+      pulled[0]++;
+      return number % 2 == 0;
+    }).memoize();
+
+    // Only as much of the source as needed is read.
+    assert (evens.second() == 4);
+    assert (pulled[0] == 4);
+
+    // Later reads use the cache.
+    assert (evens.count() == 5);
+    assert (evens.last() == 10);
+    assert (evens.get(2) == 6);
+    assert (pulled[0] == 10);
+
+    // Readers on several threads share one pass over the source.
+    pulled[0] = 0;
+    QIterable<Integer> shared = numbers.map(number -> {
+      synchronized (pulled) {
+        pulled[0]++;
+      }
+      return number * 2;
+    }).memoize();
+
+    long[] totals = new long[4];
+    Thread[] threads = new Thread[totals.length];
+    for (int index = 0; index < threads.length; index++) {
+      int thread = index;
+      threads[index] = new Thread(() -> totals[thread] = shared.sumInt(number -> number));
+      threads[index].start();
+    }
+
+    for (Thread thread : threads) thread.join();
+    for (long total : totals) assert (total == 110);
+    assert (pulled[0] == 10);
+
+    // Past the cache limit the query runs again instead of growing the cache.
+    QIterable<Integer> capped = numbers.map(number -> number).memoize(3);
+    assert (capped.count() == 10);
+    assert (capped.get(7) == 8);
+    assert (capped.toList().count() == 10);
+
+    // Reads that only need the front of the source don't read the rest.
+    QList<Integer> many = new QList<>();
+    for (int number = 0; number < 100000; number++) many.add(number);
+
+    int[] calls = { 0 };
+    MemoizeIterable<Integer> lazy = many.where(number -> {
+      calls[0]++;
+      return true;
+    }).memoize();
+    assert (lazy.first() == 0);
+    assert (lazy.any());
+    assert (lazy.take(3).toList().count() == 3);
+    assert (calls[0] == 3);
+
+    calls[0] = 0;
+    MemoizeIterable<Integer> lazyCapped = many.where(number -> {
+      calls[0]++;
+      return true;
+    }).memoize(10);
+    assert (lazyCapped.first() == 0);
+    assert (lazyCapped.take(12).last() == 11);
+    assert (calls[0] == 23);
+
+    // Once the cache is complete, it's read by index.
+    IndexedIterable<Integer> cached = lazy.complete();
+    assert (cached.size() == 100000 && cached.get(99999) == 99999);
+    assert (lazy.skip(99990) instanceof IndexedIterable);
+    assert (lazy.reverse() instanceof IndexedIterable);
+    assert (lazy.reverse().first() == 99999);
+    assert (lazy.page(10, 5).count() == 5);
+    assert (lazy.last() == 99999);
+    assert (lazy.parallel().count() == 100000);
+    assert (calls[0] == 23 + 99997);
+
+    boolean wasThrown = false;
+    try {
+      lazyCapped.complete();
+    } catch (QueryException ex) {
+      wasThrown = true;
+    }
+    assert (wasThrown);
+  }
+
+  @Test
+  public void approximateAggregates() {
+    QList<Integer> numbers = new QList<>();
+    for (int number = 0; number < 100000; number++) numbers.add(number);
+
+    long distinct = numbers.approxCountDistinct(number -> number % 20000);
+    assert (Math.abs(distinct - 20000) < 600);
+    assert (numbers.take(10).approxCountDistinct(number -> number) == 10);
+    assert (numbers.map(number -> "key" + (number % 500)).approxCountDistinct(key -> key, 10) > 450);
+
+    double median = numbers.approxQuantile(number -> number, 0.5);
+    assert (Math.abs(median - 50000) < 2000);
+    assert (numbers.approxQuantile(number -> number, 0) == 0);
+    assert (numbers.approxQuantile(number -> number, 1) == 99999);
+
+    // The first 30000 numbers share three keys, the rest are all different.
+    QList<KeyValuePair<Integer, Long>> top = numbers.approxTopFrequent(number -> (number < 30000) ? number % 3 : number, 3);
+    assert (top.count() == 3);
+    assert (top.all(entry -> entry.key() < 3 && entry.value() >= 10000));
+
+    // Sketches of separate halves merge into one for the whole.
+    HyperLogLog lower = numbers.take(50000).toHyperLogLog(number -> number, 12);
+    lower.merge(numbers.skip(25000).toHyperLogLog(number -> number, 12));
+    assert (Math.abs(lower.estimate() - 100000) < 5000);
+
+    QuantileSketch quantiles = numbers.take(50000).toQuantileSketch(number -> number);
+    quantiles.merge(numbers.skip(50000).toQuantileSketch(number -> number));
+    assert (quantiles.count() == 100000);
+    assert (Math.abs(quantiles.quantile(0.9) - 90000) < 2000);
+
+    // Memory stays bounded however many values go in.
+    QuantileSketch bounded = new QuantileSketch();
+    for (int value = 0; value < 1000000; value++) bounded.add(value);
+    assert (bounded.retained() < 3 * QuantileSketch.DEFAULT_ACCURACY + 64);
+    assert (quantiles.retained() < 3 * QuantileSketch.DEFAULT_ACCURACY + 64);
+
+    // Parallel scans sketch each segment and merge.
+    assert (Math.abs(numbers.parallel().approxCountDistinct(number -> number) - 100000) < 3000);
+    assert (Math.abs(numbers.parallel().approxQuantile(number -> number, 0.25) - 25000) < 2000);
+    assert (numbers.parallel().approxTopFrequent(number -> (number < 30000) ? number % 3 : number, 3)
+      .all(entry -> entry.key() < 3));
+
+    boolean threw = false;
+    try {
+      lower.merge(new HyperLogLog(10));
+    } catch (QueryException ex) {
+      threw = true;
+    }
+    assert (threw);
+  }
+
+  @Test
+  public void limits() {
+    QList<Integer> numbers = new QList<>();
+    for (int number = 0; number < 100; number++) numbers.add(number);
+
+    assert (numbers.take(3).toList().get(2) == 2);
+    assert (numbers.skip(95).count() == 5);
+    assert (numbers.skip(95).first() == 95);
+    assert (numbers.skip(200).count() == 0);
+    assert (numbers.take(-1).count() == 0);
+    assert (numbers.page(10, 5).sumInt(number -> number) == 60);
+    assert (numbers.skip(10).take(5).skip(2).toList().get(0) == 12);
+    assert (numbers.skip(10).take(5).skip(2).count() == 3);
+    assert (numbers.elementAt(42) == 42);
+    assert (numbers.takeWhile(number -> number < 10).count() == 10);
+    assert (numbers.skipWhile(number -> number < 90).first() == 90);
+    assert (numbers.skipWhile(number -> number < 90).toList().count() == 10);
+    assert (numbers.skipWhile(number -> number % 2 == 0).where(number -> number % 2 == 0).first() == 2);
+
+    // Empty pages of sources without random access iterate as empty.
+    int iterated = 0;
+    for (int number : numbers.where(number -> true).page(5, 0)) iterated++;
+    for (int number : numbers.where(number -> true).skip(3).take(0)) iterated++;
+    assert (iterated == 0);
+
+    // Indexed sources stay indexed, so the offset goes straight to the item.
+    assert (numbers.skip(50) instanceof IndexedIterable);
+    assert (numbers.skip(50).get(3) == 53);
+
+    // The source is read no further than needed.
+    int[] pulled = { 0 };
+    QIterable<Integer> counted = numbers.where(number -> {
+      pulled[0]++;
+      return true;
+    });
+    assert (counted.take(5).toList().count() == 5);
+    assert (pulled[0] == 5);
+
+    pulled[0] = 0;
+    Iterator<Integer> iterator = counted.take(5).iterator();
+    while (iterator.hasNext()) iterator.next();
+    assert (pulled[0] == 5);
+
+    pulled[0] = 0;
+    assert (counted.takeWhile(number -> number < 3).count() == 3);
+    assert (pulled[0] == 4);
+
+    pulled[0] = 0;
+    assert (counted.elementAt(7) == 7);
+    assert (pulled[0] == 8);
+
+    // Skipped items are never projected.
+    int[] projected = { 0 };
+    QIterable<String> names = numbers.map(number -> {
+      projected[0]++;
+      return "#" + number;
+    });
+    assert (names.skip(90).take(2).toList().get(1).equals("#91"));
+    assert (projected[0] == 2);
+
+    projected[0] = 0;
+    QIterable<String> streamed = counted.map(number -> {
+      projected[0]++;
+      return "#" + number;
+    });
+    assert (streamed.page(20, 3).toList().get(0).equals("#20"));
+    assert (projected[0] == 3);
+
+    // Paging an ordering selects the leading items instead of sorting everything.
+    QIterable<Integer> descending = numbers.orderByIntDescending(number -> number).page(5, 3);
+    assert (descending.toList().get(0) == 94);
+    assert (descending.count() == 3);
+
+    boolean wasThrown = false;
+    try {
+      numbers.elementAt(100);
+    } catch (QueryException ex) {
+      wasThrown = true;
+    }
+    assert (wasThrown);
+  }
+
+  @Test
+  public void mapAsync() {
+    QList<Integer> numbers = new QList<>();
+    for (int number = 0; number < 40; number++) numbers.add(number);
+
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger mostRunning = new AtomicInteger();
+    QIterable<Integer> doubled = numbers.mapAsync(number -> {
+      mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException ex) {
+        throw new RuntimeException(ex);
+      }
+
+      running.decrementAndGet();
+      return number * 2;
+    }, 8);
+
+    // Results come back in order, with no more than maxInFlight calls at once.
+    QList<Integer> results = doubled.toList();
+    for (int index = 0; index < 40; index++) assert (results.get(index) == index * 2);
+    assert (mostRunning.get() <= 8 && mostRunning.get() > 1);
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    assert (numbers.mapAsyncUnordered(number -> number + 1, 4, pool).toSet().count() == 40);
+    assert (numbers.mapAsyncUnordered(number -> number + 1, 4, pool).sumInt(number -> number) == 820);
+    pool.shutdown();
+
+    // Projections that return futures are composed rather than wrapped.
+    QList<CompletableFuture<String>> pending = new QList<>();
+    Iterator<String> words = numbers.where(number -> number < 3).composeAsync(number -> {
+      CompletableFuture<String> future = new CompletableFuture<>();
+      pending.add(future);
+      return future;
+    }, 2).iterator();
+    boolean hasFirst = words.hasNext();
+    assert (hasFirst);
+    assert (pending.count() == 2); // The third isn't started until one finishes.
+    pending.get(1).complete("second");
+    pending.get(0).complete("first");
+    String first = words.next();
+    assert (first.equals("first"));
+    boolean hasSecond = words.hasNext();
+    assert (hasSecond);
+    assert (pending.count() == 3);
+    pending.get(2).complete("third");
+    String second = words.next();
+    String third = words.next();
+    assert (second.equals("second") && third.equals("third"));
+    boolean hasMore = words.hasNext();
+    assert (!hasMore);
+
+    boolean wasThrown = false;
+    try {
+      numbers.mapAsync(number -> 10 / (number - 20), 4).toList();
+    } catch (ArithmeticException ex) {
+      wasThrown = true;
+    }
+    assert (wasThrown);
+  }
+
+  @Test
+  public void liveViews() throws InterruptedException {
+    QObservableList<String> words = new QObservableList<>(new QList<>("apple", "banana", "avocado"));
+
+    // Registering reads the current items once, after that only changes are applied.
+    LiveValue<Long> aWords = words.liveView(word -> word.startsWith("a")).liveCount();
+    LiveValue<Long> totalLength = words.liveView().liveSumLong(String::length);
+    LiveValue<Double> halfLength = words.liveView().map(String::length).liveSumDouble(length -> length / 2.0);
+    LiveValue<QMap<String, Long>> byLetter = words.liveView().liveGroupCount(word -> word.substring(0, 1));
+    LiveValue<QMap<String, Long>> lengthByLetter = words.liveView().liveGroupSumLong(word -> word.substring(0, 1), String::length);
+
+    assert (aWords.get() == 2);
+    assert (totalLength.get() == 18);
+    assert (halfLength.get() == 9.0);
+    assert (byLetter.get().get("a") == 2);
+
+    words.add("apricot");
+    words.remove("banana");
+    assert (aWords.get() == 3);
+    assert (totalLength.get() == 19);
+    assert (!byLetter.get().containsKey("b")); // Emptied groups are dropped.
+    assert (lengthByLetter.get().get("a") == 19);
+
+    String replaced = words.set(0, "cherry");
+    assert (replaced.equals("apple"));
+    assert (aWords.get() == 2);
+    assert (byLetter.get().get("c") == 1);
+    assert (words.liveView(word -> word.startsWith("a")).toList().count() == 2);
+
+    // Closed values stop updating.
+    halfLength.close();
+    words.add("date");
+    assert (halfLength.get() == 10.0);
+    assert (totalLength.get() == 24);
+
+    words.clear();
+    assert (aWords.get() == 0 && totalLength.get() == 0);
+    assert (byLetter.get().count() == 0);
+
+    // Sets only report items that were actually added or removed.
+    QObservableSet<Integer> numbers = new QObservableSet<>();
+    LiveValue<Long> evens = numbers.liveView(number -> number % 2 == 0).liveCount();
+    numbers.add(2);
+    numbers.add(2);
+    numbers.add(3);
+    numbers.remove(5);
+    assert (evens.get() == 1);
+    numbers.remove(2);
+    assert (evens.get() == 0);
+
+    // Readers always see the count and the sum from the same moment.
+    QObservableList<Integer> values = new QObservableList<>();
+    LiveValue<Long> count = values.liveView().liveCount();
+    LiveValue<Long> sum = values.liveView().liveSumLong(value -> value);
+    Thread writer = new Thread(() -> {
+      for (int value = 0; value < 20000; value++) {
+        values.add(1);
+        if (value % 2 == 0) values.remove(0);
+      }
+    });
+
+    writer.start();
+    boolean[] isConsistent = { true };
+    while (writer.isAlive()) {
+      values.read(() -> isConsistent[0] &= (count.get().equals(sum.get())));
+    }
+
+    writer.join();
+    assert (isConsistent[0]);
+    assert (count.get() == 10000 && sum.get() == 10000);
+  }
+
+  @Test
+  public void sortedList() throws InterruptedException {
+    Function<String, Integer> length = String::length;
+    QSortedList<String, Integer> words = new QSortedList<>(length);
+
+    // Out of order adds are buffered and merged on the next read.
+    words.add(new QList<>("pear", "fig", "banana", "kiwi", "apple", "cherry", "date"));
+    assert (words.size() == 7);
+    assert (words.first().equals("fig"));
+    assert (words.get(1).equals("pear")); // Equal keys keep the order they were added in.
+    assert (words.get(2).equals("kiwi"));
+    assert (words.last().equals("cherry"));
+    assert (words.minKey() == 3 && words.maxKey() == 6);
+    assert (words.min(length).equals("fig"));
+    assert (words.max(length).equals("banana"));
+
+    assert (words.between(4, 6).count() == 4);
+    assert (words.between(4, 6).last().equals("apple"));
+    assert (words.between(6, 4).count() == 0);
+    assert (words.headSet(4).single().equals("fig"));
+    assert (words.tailSet(6).toList().get(1).equals("cherry"));
+    assert (words.floor(5).equals("apple"));
+    assert (words.floor(2) == null);
+    assert (words.ceiling(5).equals("apple"));
+    assert (words.ceiling(7) == null);
+
+    // Views keep random access and their own key queries.
+    QSortedList<String, Integer>.SortedRange middle = words.tailSet(4);
+    assert (middle.get(0).equals("pear"));
+    assert (middle.headSet(5).count() == 3);
+    assert (middle.range(1, 3).last().equals("date"));
+    assert (middle.floor(3) == null);
+    assert (middle.where(word -> word.startsWith("d")).single().equals("date"));
+
+    words.remove("kiwi");
+    words.add("grapefruit");
+    assert (words.count() == 7);
+    assert (words.last().equals("grapefruit"));
+    assert (words.between(4, 5).toList().count() == 2);
+
+    // In order adds append directly.
+    QSortedList<Integer, Integer> numbers = new QSortedList<>(number -> number);
+    for (int number = 0; number < 10000; number++) numbers.add(number * 2);
+    assert (numbers.between(100, 200).count() == 50);
+    assert (numbers.ceiling(101) == 102);
+    assert (numbers.parallel().where(number -> number % 3 == 0).count() == 3334);
+
+    // Several threads reading after out of order adds share one merge.
+    QSortedList<Integer, Integer> reversed = new QSortedList<>(number -> number);
+    for (int number = 9999; number >= 0; number--) reversed.add(number);
+
+    long[] totals = new long[4];
+    Thread[] readers = new Thread[totals.length];
+    for (int index = 0; index < readers.length; index++) {
+      int reader = index;
+      readers[index] = new Thread(() -> {
+        for (int position = 0; position < reversed.size(); position++) totals[reader] += reversed.get(position) * (long) position;
+      });
+      readers[index].start();
+    }
+
+    for (Thread reader : readers) reader.join();
+    long expected = 0;
+    for (long position = 0; position < 10000; position++) expected += position * position;
+    for (long total : totals) assert (total == expected);
+
+    words.clear();
+    assert (words.firstOrNull() == null);
+  }
+
+  @Test
+  public void indexedList() {
+    QIndexedList<String> words = new QIndexedList<>(new QList<>("apple", "avocado", "banana", "blueberry", "cherry"));
+    QIndexedList<String>.Index<Character> byLetter = words.addIndex(word -> word.charAt(0));
+
+    assert (words.whereKey(byLetter, 'b').count() == 2);
+    assert (words.firstByKey(byLetter, 'c').equals("cherry"));
+    assert (words.firstOrNullByKey(byLetter, 'z') == null);
+    assert (!words.whereKey(byLetter, 'z').any());
+
+    // Indexes added later and changes to the list are both reflected.
+    QIndexedList<String>.Index<Integer> byLength = words.addIndex(String::length);
+    words.add("cranberry");
+    words.remove("apple");
+    assert (words.whereKey(byLetter, 'c').count() == 2);
+    assert (words.firstByKey(byLetter, 'a').equals("avocado"));
+    assert (words.whereKey(byLength, 9).count() == 2);
+    String replaced = words.set(0, "date");
+    assert (replaced.equals("avocado"));
+    assert (!words.containsKey(byLetter, 'a'));
+    assert (words.firstByKey(byLength, 4).equals("date"));
+
+    // distinct and parition reuse the index when given it.
+    assert (words.distinct(byLetter).count() == 3);
+    assert (words.distinct(byLetter).toSet().contains("banana"));
+    assert (words.distinct(word -> word.charAt(0)).count() == 3);
+    Character letter = 'c';
+    assert (words.parition(byLetter).get(letter).count() == 2);
+    assert (byLetter.keys().count() == 3);
+
+    // Null keys are indexed too.
+    QIndexedList<String>.Index<String> byNothing = words.addIndex(word -> null);
+    assert (words.whereKey(byNothing, null).count() == 5);
+    assert (words.parition(byNothing).get(null).count() == 5);
+
+    boolean wasThrown = false;
+    try {
+      words.firstByKey(byLetter, 'z');
+    } catch (QueryException ex) {
+      wasThrown = true;
+    }
+    assert (wasThrown);
+
+    words.clear();
+    assert (!words.containsKey(byLetter, 'b'));
+    assert (words.count() == 0);
+
+    // whereKey stays live as its key empties and comes back, and can't be modified.
+    QIndexedList<String> numbers = new QIndexedList<>(new QList<>("one", "two", "three", "four"));
+    QIndexedList<String>.Index<Integer> byWordLength = numbers.addIndex(String::length);
+    QIterable<String> short3 = numbers.whereKey(byWordLength, 3);
+    QIterable<String> long6 = numbers.whereKey(byWordLength, 6);
+    assert (!(short3 instanceof QList));
+    numbers.remove("one");
+    numbers.remove("two");
+    assert (short3.count() == 0);
+    numbers.add("six");
+    numbers.add("eleven");
+    assert (short3.count() == 1 && short3.first().equals("six"));
+    assert (long6.single().equals("eleven"));
+
+    // set keeps each bucket in list order, whether or not the key changes.
+    numbers.add("ten");
+    numbers.set(2, "abc");
+    assert (short3.first().equals("abc") && short3.get(1).equals("ten"));
+    assert (short3.toList().get(0).equals(numbers.where(word -> word.length() == 3).first()));
+    numbers.set(4, "seventeen");
+    numbers.set(1, "xyz");
+    assert (short3.count() == 2 && short3.first().equals("xyz") && short3.last().equals("abc"));
+    assert (numbers.whereKey(byWordLength, 9).single().equals("seventeen"));
+
+    // Equal items are told apart by their position in the list.
+    QIndexedList<String> pairs = new QIndexedList<>(new QList<>("aa", "ab", "aa", "b"));
+    QIndexedList<String>.Index<Character> byFirst = pairs.addIndex(word -> word.charAt(0));
+    Character a = 'a';
+    pairs.remove(2);
+    assert (pairs.whereKey(byFirst, a).last().equals("ab"));
+    pairs.add("aa");
+    pairs.set(3, "ac");
+    assert (pairs.whereKey(byFirst, a).toList().get(2).equals("ac"));
+  }
+
+  @Test
+  public void primitiveCollections() {
+    QIntList numbers = new QIntList();
+    for (int number = 0; number < 1000; number++) numbers.add(number);
+
+    assert (numbers.size() == 1000);
+    assert (numbers.where(number -> number % 2 == 0).count() == 500);
+    assert (numbers.where(number -> number % 2 == 0).sum() == 249500);
+    assert (numbers.map(number -> number * 2).max() == 1998);
+    assert (numbers.where(number -> number > 10).min() == 11);
+    assert (numbers.where(number -> number > 10).first() == 11);
+    assert (numbers.avg() == 499.5);
+
+    // Operators are deferred, and can be read more than once.
+    QIntIterable mod = numbers.map(number -> number % 7).distinct();
+    assert (mod.count() == 7);
+    assert (mod.sum() == 21);
+    assert (mod.toArray()[6] == 6);
+
+    QIntList unsorted = new QIntList(5, -1, 3, 0, 3);
+    assert (unsorted.sort().get(0) == -1);
+    assert (unsorted.sort().get(4) == 5);
+    assert (unsorted.get(0) == 5); // sort() returns a copy.
+
+    // Zero and negative values are ordinary members of a set.
+    QIntSet set = new QIntSet(0, -5, 7);
+    boolean isAdded = set.add(100);
+    boolean isAddedAgain = set.add(0);
+    assert (isAdded && !isAddedAgain);
+    assert (set.contains(0) && set.contains(-5) && !set.contains(5));
+    boolean isRemoved = set.remove(-5);
+    assert (isRemoved);
+    assert (!set.contains(-5));
+    assert (set.size() == 3);
+    for (int number = 0; number < 10000; number++) set.add(number * 31);
+    assert (set.size() == 10002);
+    int removed = 0;
+    for (int number = 0; number < 10000; number++) {
+      if (set.remove(number * 31)) removed++;
+    }
+    assert (removed == 10000);
+    assert (set.size() == 2);
+
+    boolean wasThrown = false;
+    try {
+      new QIntList().max();
+    } catch (QueryException ex) {
+      wasThrown = true;
+    }
+    assert (wasThrown);
+
+    // Bridges to and from object queries.
+    QList<String> words = new QList<>("One", "Two", "Three", "Four");
+    assert (words.mapToInt(String::length).sum() == 15);
+    assert (words.mapToLong(word -> (long) word.length() << 32).max() == 5L << 32);
+    assert (words.mapToDouble(word -> word.length() / 2.0).sum() == 7.5);
+    assert (numbers.mapToObj(number -> "#" + number).first().equals("#0"));
+    assert (numbers.boxed().where(number -> number > 995).toList().count() == 4);
+    assert (numbers.mapToLong(number -> number).mapToDouble(number -> number / 4.0).where(number -> number < 1).count() == 4);
+
+    QLongList longs = new QLongList(Long.MAX_VALUE, 1, Long.MAX_VALUE);
+    assert (longs.distinct().count() == 2);
+    assert (longs.min() == 1);
+    assert (new QLongList(Long.MAX_VALUE, Long.MAX_VALUE).avg() == (double) Long.MAX_VALUE);
+    assert (new QLongList(Long.MIN_VALUE, Long.MIN_VALUE, 2).where(value -> value != 2).avg() == (double) Long.MIN_VALUE);
+
+    QDoubleList doubles = new QDoubleList(1.0, 1e100, 1.0, -1e100, Double.NaN);
+    assert (doubles.where(value -> !Double.isNaN(value)).sum() == 2.0);
+    assert (doubles.distinct().count() == 4);
+    assert (doubles.sort().get(0) == -1e100);
+  }
+
+  @Test
+  public void concurrentMap() throws InterruptedException {
+    QConcurrentMap<String, Long> counts = new QConcurrentMap<>();
+    QConcurrentMap<Integer, QList<Integer>> groups = new QConcurrentMap<>();
+
+    // Several threads merge into the same keys while another reads.
+    Thread[] writers = new Thread[8];
+    for (int index = 0; index < writers.length; index++) {
+      int writer = index;
+      writers[index] = new Thread(() -> {
+        for (int number = 0; number < 10000; number++) {
+          counts.merge("key" + (number % 100), 1L, Long::sum);
+          if (number % 1000 == writer) {
+            Integer key = number % 7;
+            QList<Integer> group = groups.computeIfAbsent(key, missing -> new QList<>());
+            synchronized (group) {
+              group.add(number);
+            }
+          }
+        }
+      });
+      writers[index].start();
+    }
+
+    // Iterating while the writers run never throws, and never sees a key twice.
+    for (int pass = 0; pass < 100; pass++) {
+      QList<String> keys = counts.map(entry -> entry.key()).toList();
+      assert (keys.toSet().count() == keys.count());
+    }
+    for (Thread writer : writers) writer.join();
+
+    assert (counts.count() == 100);
+    assert (counts.get("key42") == 8 * 100);
+    assert (counts.sumLong(entry -> entry.value()) == 8 * 10000);
+    assert (counts.parallelStream().mapToLong(entry -> entry.value()).sum() == 8 * 10000);
+    assert (groups.values().sumInt(group -> group.size()) == 8 * 10);
+
+    boolean isAdded = counts.add("key1", 0L);
+    boolean isRemoved = counts.remove("key1");
+    assert (!isAdded && isRemoved);
+    assert (counts.getOrDefault("key1", -1L) == -1);
+    assert (counts.toMap().count() == 99);
+    assert (counts.keys().count() == 99);
+  }
+
+  @Test
+  public void batches() {
+    QList<Integer> numbers = new QList<>();
+    for (int index = 0; index < 10; index++) numbers.add(index);
+
+    // Batches of a list are views of it.
+    QIterable<QList<Integer>> views = numbers.batch(4);
+    assert (views.count() == 3);
+    assert (views.map(batch -> batch.size()).toList().get(2) == 2);
+    assert (views.first().get(3) == 3);
+    views.get(1).set(0, 40);
+    assert (numbers.get(4) == 40);
+    numbers.set(4, 4);
+
+    // Anything else is copied into a new list per batch, whether pulled or pushed.
+    QIterable<QList<Integer>> evens = numbers.where(number -> number % 2 == 0).batch(2);
+    QList<QList<Integer>> pulled = new QList<>();
+    for (QList<Integer> batch : evens) pulled.add(batch);
+    QList<QList<Integer>> pushed = evens.toList();
+    assert (pulled.count() == 3 && pushed.count() == 3);
+    assert (pulled.get(1).get(1) == 6 && pushed.get(1).get(1) == 6);
+    assert (pushed.last().size() == 1 && pushed.last().first() == 8);
+    assert (evens.first().sumInt(number -> number) == 2);
+
+    // forEachBatch reuses its buffer, so only read the batch inside the callback.
+    long[] sums = new long[3];
+    int[] batchCount = new int[1];
+    numbers.map(number -> number * 10).forEachBatch(4, batch -> sums[batchCount[0]++] = batch.sumInt(number -> number));
+    assert (batchCount[0] == 3);
+    assert (sums[0] == 60 && sums[1] == 220 && sums[2] == 170);
+
+    int[] sizes = new int[3];
+    int[] listBatches = new int[1];
+    numbers.forEachBatch(5, batch -> sizes[listBatches[0]++] = batch.size());
+    assert (listBatches[0] == 2 && sizes[0] == 5 && sizes[1] == 5);
+
+    try {
+      numbers.batch(0);
+      assert (false);
+    } catch (QueryException ex) {
+    }
+  }
+
+  @Test
+  public void pushIteration() {
+    QList<Integer> numbers = new QList<>();
+    for (int index = 0; index < 1000; index++) numbers.add(index);
+
+    QIterable<Integer> chain = numbers
+      .where(number -> number % 2 == 0)
+      .map(number -> number * 3)
+      .concat(new QList<>(1, 2, 3))
+      .where(number -> number % 5 != 0)
+      .distinct(number -> number % 1000);
+
+    // Pushing and pulling see the same items in the same order.
+    QList<Integer> pulled = new QList<>();
+    for (Integer number : chain) pulled.add(number);
+    QList<Integer> pushed = chain.toList();
+    assert (pushed.count() == pulled.count());
+    for (int index = 0; index < pushed.size(); index++) {
+      assert (pushed.get(index).equals(pulled.get(index)));
+    }
+
+    assert (chain.count() == pulled.count());
+    assert (chain.sumLong(number -> number) == pulled.sumLong(number -> number));
+    assert (chain.reduce(0L, (total, number) -> total + number) == pulled.sumLong(number -> number));
+
+    // Short circuiting terminals stop pushing as soon as they have an answer.
+    int[] tested = new int[1];
+    QIterable<Integer> counted = numbers.where(number -> {
+      tested[0]++;
+      return number > 10;
+    });
+
+    assert (counted.first() == 11 && tested[0] == 12);
+    assert (counted.any() && tested[0] == 24);
+    assert (!counted.all(number -> number < 500) && tested[0] == 24 + 501);
+    assert (numbers.where(number -> number > 5000).firstOrNull() == null);
+
+    StringBuilder visited = new StringBuilder();
+    new QList<>("a", "b", "c").map(String::toUpperCase).forEach(visited::append);
+    assert (visited.toString().equals("ABC"));
+
+    try {
+      numbers.where(number -> number < 0).first();
+      assert (false);
+    } catch (QueryException ex) {
+    }
+  }
+
+  @Test
+  public void streams() {
+    QList<Integer> numbers = new QList<>();
+    QSet<Integer> set = new QSet<>();
+    QMap<String, Integer> map = new QMap<>();
+    for (int index = 0; index < 10000; index++) {
+      numbers.add(index);
+      set.add(index);
+      map.put("key" + index, index);
+    }
+
+    assert (numbers.stream().mapToLong(number -> number).sum() == 49995000);
+    assert (numbers.parallelStream().filter(number -> number % 2 == 0).count() == 5000);
+    assert (set.parallelStream().mapToLong(number -> number).sum() == 49995000);
+    assert (map.parallelStream().mapToLong(entry -> entry.value()).sum() == 49995000);
+    assert (map.keys().parallelStream().distinct().count() == 10000);
+    assert (map.values().stream().mapToLong(value -> value).sum() == 49995000);
+
+    // Sized sources split into sized halves, and map keeps the split of its source.
+    Spliterator<Integer> projected = numbers.map(number -> number * 2).spliterator();
+    assert (projected.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+    assert (projected.getExactSizeIfKnown() == 10000);
+    Spliterator<Integer> prefix = projected.trySplit();
+    assert (prefix != null && prefix.getExactSizeIfKnown() + projected.getExactSizeIfKnown() == 10000);
+
+    Spliterator<KeyValuePair<String, Integer>> entries = map.spliterator();
+    assert (entries.hasCharacteristics(Spliterator.SIZED | Spliterator.DISTINCT | Spliterator.NONNULL));
+    assert (entries.getExactSizeIfKnown() == 10000);
+    assert (entries.trySplit() != null);
+
+    QIterable<Integer> ordered = numbers.orderByIntDescending(number -> number);
+    assert (ordered.parallelStream().limit(3).reduce(0, Integer::sum) == 9999 + 9998 + 9997);
+
+    // from(Stream) reads lazily, so an infinite stream works as long as the query stops.
+    QIterable<Integer> squares = QIterable.from(Stream.iterate(1, number -> number + 1)).map(number -> number * number);
+    assert (squares.first(square -> square > 50) == 64);
+
+    QIterable<Integer> once = QIterable.from(Stream.of(1, 2, 3));
+    assert (once.count() == 3);
+    try {
+      once.count();
+      assert (false);
+    } catch (QueryException ex) {
+    }
+  }
+
+  @Test
+  public void explainAndProfile() {
+    QList<Integer> numbers = new QList<>();
+    for (int index = 0; index < 1000; index++) numbers.add(index);
+
+    QIterable<String> query = numbers
+      .where(number -> number % 4 == 0)
+      .concat(new QList<>(-1, -2))
+      .map(number -> Integer.toString(number))
+      .distinct();
+
+    QueryPlan plan = query.explain();
+    assert (plan.name().equals("Distinct"));
+    assert (plan.toString().equals("Distinct\n  Map\n    Concat\n      Where\n        QList[1000]\n      QList[2]\n"));
+
+    OperatorProfile[] reported = new OperatorProfile[1];
+    ProfiledIterable<String> profiled = query.profile(metrics -> reported[0] = metrics);
+    long profiledCount = profiled.count();
+    assert (profiledCount == 252);
+    assert (reported[0] != null);
+
+    OperatorProfile map = reported[0].inputs().single();
+    OperatorProfile concat = map.inputs().single();
+    OperatorProfile where = concat.inputs().first();
+    assert (map.name().equals("Map") && map.rowsIn() == 252 && map.rowsOut() == 252);
+    assert (concat.rowsIn() == 252);
+    assert (where.rowsIn() == 1000 && where.rowsOut() == 250);
+    assert (where.selectivity() == 0.25);
+    assert (where.wallNanos() >= where.inputs().single().wallNanos());
+    assert (reported[0].wallNanos() > 0);
+
+    // Reading part of the query only counts what was read.
+    profiled.reset();
+    assert (profiled.first().equals("0"));
+    assert (profiled.metrics().rowsOut() == 1);
+    assert (profiled.metrics().inputs().single().inputs().single().inputs().first().rowsIn() == 1);
+
+    // The original query is untouched.
+    assert (query.count() == 252);
+
+    // A profiled query runs the same plan: sizes and random access are kept.
+    int[] projections = { 0 };
+    QIterable<Integer> mapped = numbers.map(number -> {
+      projections[0]++;
+      return number * 2;
+    });
+    ProfiledIterable<Integer> profiledMap = mapped.profile();
+    long mappedCount = profiledMap.count();
+    int third = profiledMap.get(2);
+    assert (mappedCount == 1000 && third == 4);
+    assert (projections[0] == 1);
+    assert (profiledMap.metrics().rowsOut() == 1);
+  }
+
+  @Test
+  public void columnList() {
+    for (boolean isOffHeap : new boolean[] { false, true }) {
+      QColumnList trades = new QColumnList(isOffHeap);
+      QColumnList.IntColumn quantity = trades.addIntColumn("quantity");
+      QColumnList.LongColumn time = trades.addLongColumn("time");
+      QColumnList.DoubleColumn price = trades.addDoubleColumn("price");
+      QColumnList.StringColumn symbol = trades.addStringColumn("symbol");
+
+      String[] symbols = { "ABC", "DEF", "GHI" };
+      for (int index = 0; index < 1000; index++) {
+        int row = trades.addRow();
+        quantity.set(row, index);
+        time.set(row, 1000L * index);
+        price.set(row, index / 10.0);
+        symbol.set(row, (index % 7 == 0) ? null : symbols[index % 3]);
+      }
+
+      assert (trades.size() == 1000);
+      assert (symbol.distinctCount() == 3);
+      assert (trades.sumInt(quantity) == 499500);
+      assert (trades.sumLong(time) == 499500000L);
+
+      QColumnList.Selection cheap = trades.whereDouble(price, value -> value < 10);
+      assert (cheap.size() == 100);
+      assert (cheap.sumDouble(price) == cheap.sum(row -> row.getDouble(price)));
+
+      QColumnList.Selection abc = cheap.whereString(symbol, "ABC"::equals);
+      int expected = 0;
+      for (int index = 0; index < 100; index++) {
+        if (index % 3 == 0 && index % 7 != 0) expected += index;
+      }
+      assert (abc.sumInt(quantity) == expected);
+      assert (abc.all(row -> "ABC".equals(row.getString(symbol))));
+      assert (abc.first().index() == 3);
+      assert (abc.toIntArray(quantity)[1] == 6);
+
+      // Rows are views, so QIterable operators still work over them.
+      assert (trades.where(row -> row.getString(symbol) == null).count() == 143);
+      assert (trades.whereLong(time, value -> value == 998000).single().get("symbol").equals("GHI"));
+      assert (trades.whereInt(quantity, value -> value > 2000).count() == 0);
+
+      // Adding a column later leaves earlier rows at zero.
+      QColumnList.IntColumn flags = trades.addIntColumn("flags");
+      assert (trades.sumInt(flags) == 0);
+
+      // Rows added after a clear() start empty again.
+      trades.clear();
+      trades.addRow();
+      int row = trades.addRow();
+      assert (quantity.get(row) == 0 && time.get(row) == 0 && price.get(row) == 0);
+      assert (symbol.get(row) == null);
+      assert (trades.sumInt(quantity) == 0);
+    }
+  }
+
+  @Test
+  public void recordFile() throws IOException {
+    // 24 byte records: long time, double price, int quantity, 4 bytes of padding.
+    Path path = Files.createTempFile("ticks", ".bin");
+    try {
+      ByteBuffer buffer = ByteBuffer.allocate(24 * 10000 + 7).order(ByteOrder.LITTLE_ENDIAN);
+      for (int index = 0; index < 10000; index++) {
+        buffer.putLong(1000L * index).putDouble(index / 100.0).putInt(index).putInt(0);
+      }
+      Files.write(path, buffer.array());
+
+      // Small segments, so records are spread over several mappings.
+      QRecordFile ticks = new QRecordFile(path, 24, ByteOrder.LITTLE_ENDIAN, 24 * 1000 + 5);
+      assert (ticks.size() == 10000);
+      assert (ticks.segments().count() == 10);
+      assert (ticks.segments().all(segment -> segment.size() == 1000));
+
+      assert (ticks.get(4321).getLong(0) == 4321000L);
+      assert (ticks.get(9999).getInt(16) == 9999);
+      assert (ticks.where(tick -> tick.getDouble(8) >= 50).count() == 5000);
+      assert (ticks.sumInt(tick -> tick.getInt(16)) == 49995000);
+      assert (ticks.map(tick -> tick.getLong(0)).get(1500) == 1500000L);
+
+      // Records handed out stay put, so buffering operators see each one.
+      Iterator<QRecordFile.Record> iterator = ticks.iterator();
+      QRecordFile.Record first = iterator.next();
+      QRecordFile.Record second = iterator.next();
+      assert (second != first);
+      assert (first.index() == 0);
+      assert (ticks.where(tick -> tick.getLong(0) < 500000).reverse().last().getLong(0) == 0);
+      assert (ticks.where(tick -> tick.getInt(16) < 3).toList().sumInt(tick -> tick.getInt(16)) == 3);
+      assert (ticks.where(tick -> tick.getInt(16) % 2 == 0).memoize().sumLong(tick -> tick.getInt(16)) == 24995000);
+
+      // Records compare by their bytes.
+      assert (ticks.get(5).equals(ticks.get(5)) && ticks.get(5).hashCode() == ticks.get(5).hashCode());
+      assert (!ticks.get(5).equals(ticks.get(6)));
+      assert (ticks.take(10).concat(ticks.take(10)).distinct().count() == 10);
+      assert (ticks.where(tick -> tick.getInt(16) < 3).toSet().count() == 3);
+
+      // scanWhile moves a single record along the file, copy() pins one down.
+      QRecordFile.Record[] scanned = new QRecordFile.Record[2];
+      ticks.scanWhile(0, 2, tick -> {
+        if (scanned[0] == null) scanned[0] = tick; else scanned[1] = tick.copy();
+        return true;
+      });
+      assert (scanned[0].index() == 1 && scanned[1].index() == 1 && scanned[0] != scanned[1]);
+      long[] total = { 0 };
+      ticks.scanWhile(tick -> {
+        total[0] += tick.getInt(16);
+        return true;
+      });
+      assert (total[0] == 49995000);
+
+      ForkJoinPool pool = new ForkJoinPool(4);
+      assert (ticks.parallel(pool).where(tick -> tick.getInt(16) % 2 == 0).sumLong(tick -> tick.getLong(0)) == 24995000000L);
+      assert (ticks.parallel(pool).count() == 10000);
+      assert (ticks.where(tick -> tick.getInt(16) % 2 == 0).parallel(pool).sumLong(tick -> tick.getInt(16)) == 24995000);
+      pool.shutdown();
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void parallel() {
+    QList<Integer> numbers = new QList<>();
+    for (int index = 0; index < 100000; index++) numbers.add(index);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    QIterable<Integer> evens = numbers.parallel(pool)
+      .where(number -> number % 2 == 0)
+      .map(number -> number * 2);
+
+    assert (evens.count() == 50000);
+    assert (evens.sum(number -> (double) number) == 4999900000.0);
+    assert (evens.max(number -> number) == 199996);
+    assert (evens.min(number -> number) == 0);
+
+    // Results are merged in encounter order.
+    QList<Integer> list = evens.toList();
+    for (int index = 0; index < list.size(); index++) {
+      assert (list.get(index) == index * 4);
+    }
+
+    // Sequential drops back to the ordinary pipeline.
+    assert (evens.sequential().count() == 50000);
+    assert (evens.sequential().get(1) == 4);
+    pool.shutdown();
+  }
+
+  @Test
+  public void primitiveAggregates() {
+    QList<String> list = new QList<String>("One", "Two", "Three", "Four", "Five");
+
+    assert (list.sumInt(String::length) == 19);
+    assert (list.avgInt(String::length) == 3.8);
+    assert (list.sumDouble(item -> item.length() / 2.0) == 9.5);
+    assert (list.maxByInt(String::length).equals("Three"));
+    assert (list.minByInt(String::length).equals("One")); // Ties keep the first item.
+    assert (list.maxByDouble(item -> -item.length()).equals("One"));
+
+    // Long sums near the limit don't overflow the average.
+    QList<Long> large = new QList<Long>(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+    assert (large.avgLong(item -> item) == (double) Long.MAX_VALUE);
+    assert (large.parallel().avgLong(item -> item) == (double) Long.MAX_VALUE);
+
+    // Negative and mixed-sign totals, including ones past the range of a long.
+    assert (new QList<Long>(-1L, -2L, -3L).avgLong(item -> item) == -2.0);
+    assert (new QList<Long>(-7L, 3L).avgLong(item -> item) == -2.0);
+    QList<Long> small = new QList<Long>(Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE);
+    assert (small.avgLong(item -> item) == (double) Long.MIN_VALUE);
+    assert (small.parallel().avgLong(item -> item) == (double) Long.MIN_VALUE);
+    QList<Long> mixed = new QList<Long>(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, 5L);
+    assert (mixed.avgLong(item -> item) == (Long.MIN_VALUE + 4) / 4.0);
+
+    QList<Integer> negatives = new QList<>();
+    for (int number = 0; number > -5000; number--) negatives.add(number);
+    assert (negatives.avgInt(number -> number) == -2499.5);
+    assert (negatives.parallel().avgInt(number -> number) == -2499.5);
+    assert (negatives.parallel().avgLong(number -> number) == -2499.5);
+    assert (negatives.avgInt(number -> number) == negatives.parallel().avgInt(number -> number));
+    assert (Double.isNaN(new QList<Integer>().avgInt(number -> number)));
+    assert (negatives.groupBy(number -> number % 2 == 0, Aggregators.avgLong(number -> number)).get(true) == -2499.0);
+
+    // Compensated summation keeps small values from being rounded away.
+    QList<Double> values = new QList<Double>(1.0, 1e100, 1.0, -1e100);
+    assert (values.sumDouble(item -> item) == 2.0);
+  }
+
   class Base {
   }
 